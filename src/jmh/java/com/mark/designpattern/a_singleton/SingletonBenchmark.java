@@ -0,0 +1,108 @@
+package com.mark.designpattern.a_singleton;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>싱글톤 getInstance() 벤치마크</b><br>
+ * a_singleton 패키지의 모든 구현 기법을 같은 조건에서 측정한다.<br>
+ * JMH의 @Threads는 클래스 단위로만 지정할 수 있으므로 벤치마크 메서드는 추상 클래스에 두고 스레드 수별 서브 클래스가 상속하도록 구성했다.<br>
+ * <br><hr><br>
+ * <b>Warm</b> : 이미 초기화된 인스턴스를 반복 조회 (Throughput + SampleTime 백분위 지연시간)<br>
+ * <b>Cold</b> : 새 JVM(fork)에서 최초 1회 조회 (SingleShotTime, 클래스 로딩/초기화 비용 포함)<br>
+ * <br>
+ * 실행 : ./gradlew jmh (결과 : build/results/jmh/results.json)
+ */
+public class SingletonBenchmark {
+
+    @State(Scope.Benchmark)
+    public static abstract class GetInstance {
+
+        @Benchmark
+        public Object eagerInitialization() {
+            return EagerInitialization.getInstance();
+        }
+
+        @Benchmark
+        public Object staticBlockInitialization() {
+            return StaticBlockInitialization.getInstance();
+        }
+
+        @Benchmark
+        public Object lazyInitialization() {
+            return LazyInitialization.getInstance();
+        }
+
+        @Benchmark
+        public Object threadSafeInitialization() {
+            return ThreadSafeInitialization.getInstance();
+        }
+
+        @Benchmark
+        public Object doubleCheckedLocking() {
+            return DoubleCheckedLocking.getInstance();
+        }
+
+        @Benchmark
+        public Object billPughSolution() {
+            return BillPughSolution.getInstance();
+        }
+
+        @Benchmark
+        public Object varHandleInitialization() {
+            return VarHandleInitialization.getInstance();
+        }
+
+        @Benchmark
+        public Object enumSingleton() {
+            return EnumSingleton.getInstance();
+        }
+    }
+
+    // ============================== Warm Path ============================== //
+
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static abstract class Warm extends GetInstance {}
+
+    @Threads(1)
+    public static class Warm_01 extends Warm {}
+
+    @Threads(4)
+    public static class Warm_04 extends Warm {}
+
+    @Threads(16)
+    public static class Warm_16 extends Warm {}
+
+    @Threads(64)
+    public static class Warm_64 extends Warm {}
+
+    // ============================== Cold Path ============================== //
+
+    /**
+     * fork 마다 워밍업 없이 단 한 번만 호출하므로 매번 클래스가 초기화되지 않은 상태에서 측정된다.<br>
+     * 스레드가 여러 개면 최초 접근 경쟁(클래스 초기화 락, synchronized 진입)까지 측정에 포함된다.
+     */
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    @Fork(20)
+    public static abstract class Cold extends GetInstance {}
+
+    @Threads(1)
+    public static class Cold_01 extends Cold {}
+
+    @Threads(4)
+    public static class Cold_04 extends Cold {}
+
+    @Threads(16)
+    public static class Cold_16 extends Cold {}
+
+    @Threads(64)
+    public static class Cold_64 extends Cold {}
+}
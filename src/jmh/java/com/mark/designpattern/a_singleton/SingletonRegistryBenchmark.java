@@ -0,0 +1,78 @@
+package com.mark.designpattern.a_singleton;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mark.designpattern.a_singleton.SingletonRegistry.Init;
+import static com.mark.designpattern.a_singleton.SingletonRegistry.Key;
+import static com.mark.designpattern.a_singleton.SingletonRegistry.enterTenant;
+
+/**
+ * <b>SingletonRegistry 범위별 조회 비용 벤치마크</b><br>
+ * GLOBAL(LazyHolder) / THREAD(ThreadLocal) / TENANT(ThreadLocal + ConcurrentHashMap) 조회를 Bill Pugh Solution 직접 호출과 비교한다.<br>
+ * 벤치마크 스레드마다 서로 다른 테넌트(8개 중 하나)를 바인딩한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SingletonRegistryBenchmark {
+
+    private SingletonRegistry registry;
+    private Key<Object> global;
+    private Key<Object> thread;
+    private Key<Object> tenant;
+
+    @Setup
+    public void setup() {
+        registry = new SingletonRegistry();
+        global = registry.register("global", SingletonRegistry.Scope.GLOBAL, Init.LAZY, Object::new);
+        thread = registry.register("thread", SingletonRegistry.Scope.THREAD, Init.LAZY, Object::new);
+        tenant = registry.register("tenant", SingletonRegistry.Scope.TENANT, Init.LAZY, Object::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @State(Scope.Thread)
+    public static class TenantBound {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+        @Setup
+        public void bind() {
+            enterTenant("tenant-" + SEQUENCE.getAndIncrement() % 8);
+        }
+
+        @TearDown
+        public void unbind() {
+            enterTenant(null);
+        }
+    }
+
+    @Benchmark
+    public Object billPughSolution() {
+        return BillPughSolution.getInstance();
+    }
+
+    @Benchmark
+    public Object globalScope() {
+        return registry.get(global);
+    }
+
+    @Benchmark
+    public Object threadScope() {
+        return registry.get(thread);
+    }
+
+    @Benchmark
+    public Object tenantScope(TenantBound bound) {
+        return registry.get(tenant);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mark.designpattern.b_strategy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.b_strategy.SortStrategy.*;
+
+/**
+ * <b>정렬 전략 별 int[] 정렬 시간</b><br>
+ * Boxed 는 기존 comparatorTest 처럼 List&lt;Integer&gt; 를 정렬하는 경우이며, 메모리 한계로 10M 까지만 측정한다. (100M 조합은 @Param 에서 제외)<br>
+ * 100M 은 int[] 만 약 400MB 이므로 충분한 힙(-Xmx)이 필요하다.<br>
+ * 매 호출마다 정렬되지 않은 원본을 벤치마크 안에서 복사한 뒤 정렬한다. (Level.Invocation Setup 은 호출마다 타이머를 멈추는 비용이 1K 정렬 시간보다 커서 사용하지 않음)<br>
+ * 복사 비용은 copy 벤치마크로 따로 측정하므로 정렬 시간은 각 수치에서 copy 를 뺀 값으로 본다.<br>
+ * (./gradlew jmh 결과 JSON 에 크기/전략 별 수치가 기록된다)
+ */
+public class SortStrategyBenchmark {
+
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    @State(Scope.Thread)
+    public static class Primitive {
+
+        @Param({"1000", "100000", "10000000", "100000000"})
+        int size;
+
+        private int[] source;
+        private int[] values;
+
+        private final SortIStrategy dualPivot = new DualPivotSortStrategy();
+        private final SortIStrategy parallel = new ParallelSortStrategy();
+        private final SortIStrategy radix = new RadixSortStrategy();
+
+        @Setup(Level.Trial)
+        public void generate() {
+            source = new SplittableRandom(42).ints(size).toArray();
+            values = new int[size];
+        }
+
+        @Benchmark
+        public int[] copy() {
+            System.arraycopy(source, 0, values, 0, size);
+            return values;
+        }
+
+        @Benchmark
+        public int[] dualPivot() {
+            dualPivot.sort(copy());
+            return values;
+        }
+
+        @Benchmark
+        public int[] parallel() {
+            parallel.sort(copy());
+            return values;
+        }
+
+        @Benchmark
+        public int[] radix() {
+            radix.sort(copy());
+            return values;
+        }
+
+        @Benchmark
+        public int[] selected() {
+            select(size).sort(copy());
+            return values;
+        }
+    }
+
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 3)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    @State(Scope.Thread)
+    public static class Boxed {
+
+        @Param({"1000", "100000", "10000000"})
+        int size;
+
+        // 박싱은 Trial 에서 한 번만 하고, 호출마다 같은 Integer 객체 배열을 복사해 정렬
+        private Integer[] source;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            source = new SplittableRandom(42).ints(size).boxed().toArray(Integer[]::new);
+        }
+
+        @Benchmark
+        public List<Integer> copy() {
+            return new ArrayList<>(Arrays.asList(source));
+        }
+
+        @Benchmark
+        public List<Integer> sort() {
+            List<Integer> boxed = copy();
+            Collections.sort(boxed, Integer::compare);
+            return boxed;
+        }
+    }
+}
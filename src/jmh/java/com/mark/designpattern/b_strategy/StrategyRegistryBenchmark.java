@@ -0,0 +1,85 @@
+package com.mark.designpattern.b_strategy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.b_strategy.Strategy.IStrategy;
+import static com.mark.designpattern.b_strategy.Strategy.StrategyType;
+
+/**
+ * <b>StrategyContext(필드) vs StrategyRegistry(배열 인덱싱) 전략 실행 비용</b><br>
+ * 로그 출력 비용을 배제하기 위해 카운터만 증가시키는 전략을 사용한다.<br>
+ * swap 그룹은 7개 스레드가 실행하는 동안 1개 스레드가 계속 전략을 교체하는 상황에서 읽기 처리량을 측정한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyRegistryBenchmark {
+
+    static final class CountingStrategy implements IStrategy {
+        long count;
+
+        @Override
+        public void doSomething() {
+            count++;
+        }
+    }
+
+    private final IStrategy[] strategies = {new CountingStrategy(), new CountingStrategy()};
+    private StrategyContext context;
+    private StrategyRegistry<StrategyType> registry;
+
+    @Setup
+    public void setup() {
+        context = new StrategyContext();
+        context.setStrategy(strategies[0]);
+
+        registry = new StrategyRegistry<>(StrategyType.class);
+        registry.register(StrategyType.A, strategies[0]);
+        registry.register(StrategyType.B, strategies[1]);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void contextFixed() {
+        context.doSomething();
+    }
+
+    @Benchmark
+    public void registryFixed() {
+        registry.doSomething(StrategyType.A);
+    }
+
+    @Benchmark
+    public void contextSwitching(Cursor cursor) {
+        context.setStrategy(strategies[cursor.next++ & 1]);
+        context.doSomething();
+    }
+
+    @Benchmark
+    public void registrySwitching(Cursor cursor) {
+        registry.doSomething(cursor.next++ & 1);
+    }
+
+    @Benchmark
+    @Group("swap")
+    @GroupThreads(7)
+    public void swapReader() {
+        registry.doSomething(StrategyType.A);
+    }
+
+    @Benchmark
+    @Group("swap")
+    @GroupThreads(1)
+    public void swapWriter(Cursor cursor) {
+        registry.register(StrategyType.A, strategies[cursor.next++ & 1]);
+    }
+}
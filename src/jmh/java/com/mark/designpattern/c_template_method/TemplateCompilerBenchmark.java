@@ -0,0 +1,95 @@
+package com.mark.designpattern.c_template_method;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.c_template_method.TemplateCompiler.CompiledTemplate;
+import static com.mark.designpattern.c_template_method.TemplateMethod.AbstractTemplate;
+
+/**
+ * <b>templateMethod() 가상 호출 vs 컴파일된 MethodHandle 체인</b><br>
+ * 하나의 호출 지점에서 5개의 서로 다른 템플릿을 번갈아 실행하여 megamorphic 상황을 만든다.<br>
+ * 로그 출력 비용을 배제하기 위해 카운터만 증가시키는 템플릿을 사용한다.<br>
+ * compiled 는 템플릿 별 hidden class 의 run() 을 한 번 가상 호출(megamorphic)하고, 그 안에서는 static final 체인이 단계 호출까지 모두 인라이닝된다.<br>
+ * (-XX:+PrintInlining 으로 hidden class 안의 step1 / step2 / step3 가 inline (hot) 인 것을 확인할 수 있다.)<br>
+ * constant 는 호출 지점이 하나의 템플릿만 실행하므로 run() 가상 호출까지 사라진 이상적인 기준값이며, compiled 와의 차이가 남은 megamorphic 호출 비용이다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateCompilerBenchmark {
+
+    static long counter;
+
+    static class T1 extends AbstractTemplate {
+        @Override protected void step1() { counter += 1; }
+        @Override protected void step2() { counter += 2; }
+        @Override protected void step3() { counter += 3; }
+    }
+
+    static class T2 extends AbstractTemplate {
+        @Override protected void step1() { counter += 4; }
+        @Override protected void step2() { counter += 5; }
+        @Override protected void step3() { counter += 6; }
+        @Override boolean hook() { return false; }
+    }
+
+    static class T3 extends AbstractTemplate {
+        @Override protected void step1() { counter ^= 7; }
+        @Override protected void step2() { counter ^= 8; }
+        @Override protected void step3() { counter ^= 9; }
+    }
+
+    static class T4 extends AbstractTemplate {
+        @Override protected void step1() { counter -= 1; }
+        @Override protected void step2() { counter -= 2; }
+        @Override protected void step3() { counter -= 3; }
+        @Override boolean hook() { return false; }
+    }
+
+    static class T5 extends AbstractTemplate {
+        @Override protected void step1() { counter *= 3; }
+        @Override protected void step2() { counter *= 5; }
+        @Override protected void step3() { counter *= 7; }
+    }
+
+    private static final CompiledTemplate CONSTANT = TemplateCompiler.compile(new T1());
+
+    private final AbstractTemplate[] templates = {new T1(), new T2(), new T3(), new T4(), new T5()};
+    private final CompiledTemplate[] compiled = new CompiledTemplate[templates.length];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < templates.length; i++) {
+            compiled[i] = TemplateCompiler.compile(templates[i]);
+        }
+    }
+
+    @Benchmark
+    public long virtual() {
+        for (AbstractTemplate template : templates) {
+            template.templateMethod();
+        }
+        return counter;
+    }
+
+    @Benchmark
+    public long compiled() {
+        for (CompiledTemplate template : compiled) {
+            template.run();
+        }
+        return counter;
+    }
+
+    @Benchmark
+    public long constant() {
+        for (int i = 0; i < templates.length; i++) {
+            CONSTANT.run();
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mark.designpattern.d_state;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.d_state.State.LaptopContext;
+
+/**
+ * <b>공유 컨텍스트에 대한 동시 전이 처리량</b><br>
+ * 4개 스레드는 전원 버튼, 4개 스레드는 절전 모드 이벤트를 하나의 컨텍스트에 동시에 보낸다.<br>
+ * cas : ConcurrentLaptopContext (AtomicReference CAS)<br>
+ * locked : LaptopContext 의 메서드를 synchronized 로 감싼 경우 (전이 유실은 없지만 모든 호출이 직렬화됨)<br>
+ * (원본 LaptopContext 는 전이가 유실되므로 정확성 기준의 비교 대상에서 제외)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentLaptopContextBenchmark {
+
+    private final ConcurrentLaptopContext concurrent = new ConcurrentLaptopContext();
+    private final LaptopContext locked = new LaptopContext();
+
+    @Benchmark
+    @Group("cas")
+    @GroupThreads(4)
+    public Object casPower() {
+        return concurrent.powerButtonPush();
+    }
+
+    @Benchmark
+    @Group("cas")
+    @GroupThreads(4)
+    public Object casSaving() {
+        return concurrent.setSavingState();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(4)
+    public Object lockedPower() {
+        synchronized (locked) {
+            locked.powerButtonPush();
+            return locked.powerState;
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(4)
+    public Object lockedSaving() {
+        synchronized (locked) {
+            locked.setSavingState();
+            return locked.powerState;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mark.designpattern.d_state;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.d_state.State.LaptopContext;
+import static com.mark.designpattern.d_state.StateTable.*;
+
+/**
+ * <b>상태 객체(State) vs 전이 테이블(StateTable) 전이 처리량</b><br>
+ * 100,000 개의 노트북 상태 머신에 차례로 전원 버튼 이벤트를 보낸다.<br>
+ * State 예제의 전이 로그는 src/jmh/resources/logback.xml 에서 WARN 으로 낮춰 로그 출력 비용은 제외된다. (로그 레벨 검사 비용은 포함)<br>
+ * 머신 당 메모리 : LaptopContext 는 객체 약 16 byte + 배열 참조 4 byte, MachineFleet 은 1 byte<br>
+ * (-prof gc 로 실행하면 전이 당 할당량도 함께 확인할 수 있다)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateTableBenchmark {
+
+    private static final int MACHINES = 100_000;
+
+    private LaptopContext[] contexts;
+    private MachineFleet fleet;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        contexts = new LaptopContext[MACHINES];
+        for (int i = 0; i < MACHINES; i++) {
+            contexts[i] = new LaptopContext();
+        }
+        fleet = new MachineFleet(laptop(), MACHINES, OFF);
+    }
+
+    @Benchmark
+    public Object objectPerState() {
+        LaptopContext context = contexts[next()];
+        context.powerButtonPush();
+        return context.powerState;
+    }
+
+    @Benchmark
+    public boolean transitionTable() {
+        return fleet.fire(next(), POWER_BUTTON);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == MACHINES ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,134 @@
+package com.mark.designpattern.d_state;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.mark.designpattern.d_state.StateTable.*;
+
+/**
+ * <b>전이 저널 기록 처리량 / 복원 시간</b><br>
+ * append : 1,000,000 개 머신에 임의 이벤트를 보낼 때 저널 없이 전이만 하는 경우와 저널에 함께 기록하는 경우의 처리량 (반복마다 새 저널)<br>
+ * recover : 1,000,000 개 머신 x 8,000,000 개 레코드를 순차 / 병렬(ForkJoinPool)로 복원하는 시간<br>
+ * snapshotEvery 가 0 이면 저널 전체를, 그 외에는 마지막 스냅샷 이후 레코드만 다시 읽는다.
+ */
+public class TransitionJournalBenchmark {
+
+    private static final int MACHINES = 1_000_000;
+    private static final int RECORDS = 8_000_000;
+
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    @State(Scope.Thread)
+    public static class Append {
+
+        private MachineFleet fleet;
+        private TransitionJournal journal;
+        private Path directory;
+        private int[] machines;
+        private int[] events;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            fleet = new MachineFleet(laptop(), MACHINES, OFF);
+            SplittableRandom random = new SplittableRandom(42);
+            machines = random.ints(1 << 20, 0, MACHINES).toArray();
+            events = random.ints(1 << 20, 0, EVENT_COUNT).toArray();
+        }
+
+        @Setup(Level.Iteration)
+        public void setupIteration() throws IOException {
+            directory = Files.createTempDirectory("journal-append");
+            journal = new TransitionJournal(directory, 64 << 20, 0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDownIteration() throws IOException {
+            journal.close();
+            delete(directory);
+        }
+
+        @Benchmark
+        public boolean fleetOnly() {
+            int i = next();
+            return fleet.fire(machines[i], events[i]);
+        }
+
+        @Benchmark
+        public boolean journaled() {
+            int i = next();
+            return journal.fire(fleet, machines[i], events[i]);
+        }
+
+        private int next() {
+            int i = cursor;
+            cursor = (i + 1) & (machines.length - 1);
+            return i;
+        }
+    }
+
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    @Fork(1)
+    @State(Scope.Benchmark)
+    public static class Recover {
+
+        @Param({"0", "4000000"})
+        public long snapshotEvery;
+
+        private Path directory;
+        private ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("journal-recover");
+            pool = new ForkJoinPool();
+
+            MachineFleet fleet = new MachineFleet(laptop(), MACHINES, OFF);
+            SplittableRandom random = new SplittableRandom(42);
+            try (TransitionJournal journal = new TransitionJournal(directory, RECORDS, snapshotEvery)) {
+                while (journal.count() < RECORDS) {
+                    journal.fire(fleet, random.nextInt(MACHINES), random.nextInt(EVENT_COUNT));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            pool.close();
+            delete(directory);
+        }
+
+        @Benchmark
+        public MachineFleet sequential() {
+            return TransitionJournal.recover(directory, laptop(), MACHINES, OFF, null);
+        }
+
+        @Benchmark
+        public MachineFleet parallel() {
+            return TransitionJournal.recover(directory, laptop(), MACHINES, OFF, pool);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
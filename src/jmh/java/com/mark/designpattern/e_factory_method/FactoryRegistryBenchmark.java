@@ -0,0 +1,64 @@
+package com.mark.designpattern.e_factory_method;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <b>제품 생성 비용 : new vs FactoryRegistry(LambdaMetafactory) vs MethodHandle vs Constructor.newInstance</b><br>
+ * 생성만 측정하기 위해 setting() 은 호출하지 않는다.<br>
+ * registry 는 이름 조회 없이 미리 꺼낸 Supplier 를 호출하는 경우(supplier)와 매번 이름으로 조회하는 경우(lookup)로 나눈다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FactoryRegistryBenchmark {
+
+    private FactoryRegistry registry;
+    private Supplier<? extends IProduct> supplier;
+    private MethodHandle handle;
+    private Constructor<ConcreteProductA> constructor;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        registry = new FactoryRegistry().register(ConcreteProductA.class);
+        supplier = registry.supplier("A");
+        handle = MethodHandles.lookup().findConstructor(ConcreteProductA.class, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(IProduct.class));
+        constructor = ConcreteProductA.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+    }
+
+    @Benchmark
+    public IProduct direct() {
+        return new ConcreteProductA();
+    }
+
+    @Benchmark
+    public IProduct supplier() {
+        return supplier.get();
+    }
+
+    @Benchmark
+    public IProduct lookup() {
+        return registry.supplier("A").get();
+    }
+
+    @Benchmark
+    public IProduct methodHandle() throws Throwable {
+        return (IProduct) handle.invokeExact();
+    }
+
+    @Benchmark
+    public IProduct reflection() throws ReflectiveOperationException {
+        return constructor.newInstance();
+    }
+}
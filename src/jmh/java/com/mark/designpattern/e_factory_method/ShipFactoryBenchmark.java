@@ -0,0 +1,104 @@
+package com.mark.designpattern.e_factory_method;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mark.designpattern.e_factory_method.EmailNotifier.Notification;
+
+/**
+ * <b>선박 주문 처리량 (orders/us)</b><br>
+ * baseline : 주문마다 새 선박 생성 + 주문 스레드에서 메일 발송 (기존 방식)<br>
+ * prototype : 공유 인스턴스 + 비동기 일괄 메일 발송<br>
+ * async : 주문마다 새 선박 생성 + 비동기 일괄 메일 발송 (할당 절감과 발송 위치 변경의 효과를 나누어 보기 위함)<br>
+ * 4개의 주문 스레드가 같은 팩토리를 사용한다. 로그 레벨은 src/jmh/resources/logback.xml 에서 WARN 이라 기존 로그 발송은 비용이 거의 없으므로<br>
+ * 세 경우 모두 메일 본문을 만드는 같은 발송 함수(mail)를 사용하고, 발송 위치(주문 스레드 / 발송 스레드)만 다르다.<br>
+ * (-prof gc 로 실행하면 주문 당 할당량도 함께 확인할 수 있다)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShipFactoryBenchmark {
+
+    private static final String EMAIL = "yongseok993@gmail.com";
+
+    // 메일 본문 생성 (발송 자체는 생략)
+    private static void mail(List<Notification> batch) {
+        for (Notification notification : batch) {
+            Blackhole.consumeCPU(String.format("%s 다 만들었다고 %s로 메일을 보냈습니다.", notification.ship(), notification.email()).length());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Baseline {
+        final ContainerShipFactory factory = ContainerShipFactory.getInstance();
+
+        @Setup
+        public void setup() {
+            factory.useNotifier(EmailNotifier.synchronous(ShipFactoryBenchmark::mail));
+        }
+
+        @TearDown
+        public void tearDown() {
+            factory.useNotifier(null);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Prototype {
+        final ContainerShipFactory factory = ContainerShipFactory.getInstance();
+        EmailNotifier notifier;
+
+        @Setup
+        public void setup() {
+            notifier = new EmailNotifier(1 << 16, 256, ShipFactoryBenchmark::mail);
+            factory.useCache(ShipCache.prototype(factory::createShip));
+            factory.useNotifier(notifier);
+        }
+
+        @TearDown
+        public void tearDown() {
+            factory.useCache(null);
+            factory.useNotifier(null);
+            notifier.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Async {
+        final OilTankerShipFactory factory = OilTankerShipFactory.getInstance();
+        EmailNotifier notifier;
+
+        @Setup
+        public void setup() {
+            notifier = new EmailNotifier(1 << 16, 256, ShipFactoryBenchmark::mail);
+            factory.useNotifier(notifier);
+        }
+
+        @TearDown
+        public void tearDown() {
+            factory.useNotifier(null);
+            notifier.close();
+        }
+    }
+
+    @Benchmark
+    public Ship baseline(Baseline state) {
+        return state.factory.orderShip(EMAIL);
+    }
+
+    @Benchmark
+    public Ship prototype(Prototype state) {
+        return state.factory.orderShip(EMAIL);
+    }
+
+    @Benchmark
+    public Ship async(Async state) {
+        return state.factory.orderShip(EMAIL);
+    }
+}
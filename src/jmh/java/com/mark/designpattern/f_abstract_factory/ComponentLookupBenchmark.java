@@ -0,0 +1,60 @@
+package com.mark.designpattern.f_abstract_factory;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b>컴포넌트 타입 조회 처리량 : 문자열 switch vs Perfect Hash vs Platform enum</b><br>
+ * switchLookup : 변경 전 ButtonFactory.createComponent (type.toLowerCase() + 문자열 switch)<br>
+ * perfectHash : 문자열 진입점 (Platform.of + 생성자 배열)<br>
+ * platform : Platform enum 진입점 (생성자 배열)<br>
+ * 입력은 대소문자가 섞인 타입 이름을 순서대로 사용한다. -prof gc 로 실행하면 조회 당 할당량(gc.alloc.rate.norm)에서 toLowerCase() 의 문자열 할당 차이를 확인할 수 있다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentLookupBenchmark {
+
+    private static final String[] TYPES = {"Window", "mac", "WINDOW", "Mac", "window", "MAC", "wInDoW", "mAc"};
+
+    private final ButtonFactory factory = ButtonFactory.getInstance();
+    private Platform[] platforms;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        platforms = new Platform[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            platforms[i] = Platform.of(TYPES[i]);
+        }
+    }
+
+    @Benchmark
+    public Button switchLookup() {
+        return switch (TYPES[next()].toLowerCase()) {
+            case "window" -> new WindowButton();
+            case "mac" -> new MacButton();
+            default -> null;
+        };
+    }
+
+    @Benchmark
+    public Button perfectHash() {
+        return factory.createComponent(TYPES[next()]);
+    }
+
+    @Benchmark
+    public Button platform() {
+        return factory.createComponent(platforms[next()]);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = (i + 1) & (TYPES.length - 1);
+        return i;
+    }
+}
@@ -0,0 +1,100 @@
+package com.mark.designpattern.f_abstract_factory;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <b>제품군 조회 / 등록 경합 : Copy-On-Write(PlatformRegistry) vs ReentrantReadWriteLock + HashMap vs ConcurrentHashMap</b><br>
+ * 그룹마다 조회 스레드 3개가 "window" 를 조회하는 동안 등록 스레드 1개가 "linux" 제품군 등록 / 해제를 반복한다.<br>
+ * readOnly 는 등록 없이 PlatformRegistry 조회만 측정한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class PlatformRegistryBenchmark {
+
+    private PlatformRegistry registry;
+    private final Map<String, ComponentAbstractFactory> locked = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, ComponentAbstractFactory> concurrent = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setup() {
+        registry = PlatformRegistry.empty();
+        registry.load(PlatformRegistry.class.getClassLoader());
+        for (String name : registry.names()) {
+            locked.put(name, registry.get(name));
+            concurrent.put(name, registry.get(name));
+        }
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public ComponentAbstractFactory readOnly() {
+        return registry.get("window");
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(3)
+    public ComponentAbstractFactory copyOnWriteLookup() {
+        return registry.get("window");
+    }
+
+    @Benchmark
+    @Group("copyOnWrite")
+    @GroupThreads(1)
+    public boolean copyOnWriteRegister() {
+        registry.register("linux", WindowFactory.getInstance());
+        return registry.unregister("linux");
+    }
+
+    @Benchmark
+    @Group("readWriteLock")
+    @GroupThreads(3)
+    public ComponentAbstractFactory readWriteLockLookup() {
+        lock.readLock().lock();
+        try {
+            return locked.get("window");
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("readWriteLock")
+    @GroupThreads(1)
+    public ComponentAbstractFactory readWriteLockRegister() {
+        lock.writeLock().lock();
+        try {
+            locked.put("linux", WindowFactory.getInstance());
+            return locked.remove("linux");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("concurrentHashMap")
+    @GroupThreads(3)
+    public ComponentAbstractFactory concurrentHashMapLookup() {
+        return concurrent.get("window");
+    }
+
+    @Benchmark
+    @Group("concurrentHashMap")
+    @GroupThreads(1)
+    public ComponentAbstractFactory concurrentHashMapRegister() {
+        concurrent.put("linux", WindowFactory.getInstance());
+        return concurrent.remove("linux");
+    }
+}
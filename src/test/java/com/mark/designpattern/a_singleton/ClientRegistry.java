@@ -0,0 +1,161 @@
+package com.mark.designpattern.a_singleton;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 샤드(Stripe) 단위로 분할한 크기 제한 + TTL 클라이언트 레지스트리<br>
+ * 하나의 무제한 ConcurrentHashMap 은 쓰기가 몰리면 resize 가 발생하고 힙이 끝없이 증가한다.<br>
+ * 키의 해시로 샤드를 고르고 샤드마다 독립된 락과 LRU(access-order LinkedHashMap)를 두어 경합을 샤드 수만큼 분산하며,<br>
+ * 샤드 용량을 넘으면 해당 샤드에서 가장 오래 사용하지 않은 항목만 제거(per-shard eviction)한다.<br>
+ * 샤드 용량이 고정이므로 초기 용량을 미리 잡아 resize 가 일어나지 않는다.
+ */
+class ClientRegistry {
+
+    private final Shard[] shards;
+    private final int mask;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    // 통계 카운터 : 여러 스레드의 동시 증가에도 경합이 적은 LongAdder 사용
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    ClientRegistry(int shardCount, int maxEntriesPerShard, Duration ttl) {
+        this(shardCount, maxEntriesPerShard, ttl, System::nanoTime);
+    }
+
+    ClientRegistry(int shardCount, int maxEntriesPerShard, Duration ttl, LongSupplier clock) {
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount must be a power of two : " + shardCount);
+        }
+        if (maxEntriesPerShard <= 0) {
+            throw new IllegalArgumentException("maxEntriesPerShard must be positive : " + maxEntriesPerShard);
+        }
+
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(maxEntriesPerShard);
+        }
+        this.mask = shardCount - 1;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    public String get(String key) {
+        Shard shard = shardOf(key);
+        long now = clock.getAsLong();
+
+        shard.lock.lock();
+        try {
+            Entry entry = shard.map.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                shard.map.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public void put(String key, String value) {
+        Shard shard = shardOf(key);
+        long expiresAt = clock.getAsLong() + ttlNanos;
+
+        shard.lock.lock();
+        try {
+            shard.map.put(key, new Entry(value, expiresAt));
+            if (shard.map.size() > shard.capacity) {
+                evictOne(shard, clock.getAsLong());
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public String remove(String key) {
+        Shard shard = shardOf(key);
+
+        shard.lock.lock();
+        try {
+            Entry entry = shard.map.remove(key);
+            return entry == null ? null : entry.value;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.map.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    /**
+     * LRU 순서상 가장 오래된 항목을 제거 (O(1))<br>
+     * 만료된 항목은 get() 시점에 지연 제거되며, 가장 오래된 항목이 이미 만료된 경우는 만료로 집계
+     */
+    private void evictOne(Shard shard, long now) {
+        Iterator<Map.Entry<String, Entry>> eldest = shard.map.entrySet().iterator();
+        Entry entry = eldest.next().getValue();
+        eldest.remove();
+
+        if (entry.isExpired(now)) {
+            expirations.increment();
+        } else {
+            evictions.increment();
+        }
+    }
+
+    private Shard shardOf(String key) {
+        int h = key.hashCode();
+        // HashMap 과 같은 방식으로 상위 비트를 섞어 샤드 분포를 고르게
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final LinkedHashMap<String, Entry> map;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+            // access-order = true : get() 할 때마다 가장 최근 항목으로 이동 (LRU)
+            this.map = new LinkedHashMap<>((int) ((capacity + 1) / 0.75f) + 1, 0.75f, true);
+        }
+    }
+
+    private record Entry(String value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    record Stats(long hits, long misses, long evictions, long expirations) {}
+}
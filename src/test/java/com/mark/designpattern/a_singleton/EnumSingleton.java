@@ -1,23 +1,23 @@
 package com.mark.designpattern.a_singleton;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
 
 enum EnumSingleton {
 
     INSTANCE;
 
-    private final Map<String, String> client;
+    // 샤드 16개 x 샤드당 1024개, 30분 TTL : 크기가 제한되어 힙이 무한히 증가하지 않음 (무제한 ConcurrentHashMap 대체)
+    private final ClientRegistry client;
 
     EnumSingleton() {
-        client = new ConcurrentHashMap<>();
+        client = new ClientRegistry(16, 1024, Duration.ofMinutes(30));
     }
 
     public static EnumSingleton getInstance() {
         return INSTANCE;
     }
 
-    public Map<String, String> getClient() {
+    public ClientRegistry getClient() {
         return client;
     }
 }
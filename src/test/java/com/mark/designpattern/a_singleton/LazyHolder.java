@@ -0,0 +1,144 @@
+package com.mark.designpattern.a_singleton;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * VarHandle 기반 Lock-Free 지연 초기화 홀더<br>
+ * Double-Checked Locking 은 매 호출마다 volatile 읽기를 하고 최초 초기화 시 클래스 모니터(synchronized)에 의존한다.<br>
+ * LazyHolder 는 값을 acquire 로 읽고 release 로 게시(publish)하므로 x86 같은 TSO 아키텍처에서는 일반 load 와 같은 비용으로 읽히며,<br>
+ * 최초 초기화는 CAS 로 단 하나의 스레드만 supplier 를 실행하도록 보장한다.<br>
+ * 나머지 스레드는 짧게(SPIN_LIMIT 회) spin 한 뒤에도 게시되지 않으면 Condition 에서 대기한다. supplier 가 I/O 등으로 오래 블로킹되어도 대기 스레드가 CPU(가상 스레드의 캐리어 스레드)를 점유하지 않는다.<br>
+ * (synchronized 대신 ReentrantLock 을 쓰는 이유 : Java 21 에서 synchronized 블록 안의 대기는 가상 스레드를 캐리어에 고정(pinning)시킴)<br>
+ * Bill Pugh Solution 과 달리 클래스 단위가 아닌 필드 단위로 지연 초기화를 적용할 수 있다.
+ */
+public final class LazyHolder<T> {
+
+    // supplier 실행 중임을 표시하는 마커
+    private static final Object INITIALIZING = new Object();
+
+    // Condition 대기로 넘어가기 전 spin 횟수
+    private static final int SPIN_LIMIT = 100;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(LazyHolder.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Supplier<? extends T> supplier;
+
+    // null(미초기화) -> INITIALIZING -> 값
+    private Object value;
+
+    // 초기화가 끝나기를 기다리는 스레드용 (경합 시에만 사용)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    private LazyHolder(Supplier<? extends T> supplier) {
+        this.supplier = supplier;
+    }
+
+    public static <T> LazyHolder<T> of(Supplier<? extends T> supplier) {
+        if (supplier == null) {
+            throw new IllegalArgumentException("supplier must not be null");
+        }
+        return new LazyHolder<>(supplier);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object v = VALUE.getAcquire(this);
+        if (v != null && v != INITIALIZING) {
+            return (T) v;
+        }
+        return initialize();
+    }
+
+    boolean isInitialized() {
+        Object v = VALUE.getAcquire(this);
+        return v != null && v != INITIALIZING;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T initialize() {
+        while (true) {
+            Object v = VALUE.compareAndExchange(this, null, INITIALIZING);
+
+            // CAS 성공 : 이 스레드만 supplier 실행
+            if (v == null) {
+                T created;
+                try {
+                    created = supplier.get();
+                } catch (RuntimeException | Error e) {
+                    // 초기화 실패 시 다음 호출에서 다시 시도할 수 있도록 되돌림
+                    publish(null);
+                    throw e;
+                }
+
+                if (created == null) {
+                    publish(null);
+                    throw new IllegalStateException("supplier returned null");
+                }
+
+                publish(created);
+                return created;
+            }
+
+            // 다른 스레드가 초기화 중이면 CAS 를 반복하지 않고 읽기만 하며 짧게 spin, 그래도 게시되지 않으면 Condition 대기
+            for (int spins = 0; v == INITIALIZING && spins < SPIN_LIMIT; spins++) {
+                Thread.onSpinWait();
+                v = VALUE.getAcquire(this);
+            }
+            if (v == INITIALIZING) {
+                v = awaitPublished();
+            }
+
+            // 초기화에 실패해 null 로 되돌려졌다면 다시 CAS 경쟁
+            if (v != null) {
+                return (T) v;
+            }
+        }
+    }
+
+    // 값(또는 실패 시 null)을 게시하고 대기 중인 스레드를 깨움
+    private void publish(Object v) {
+        VALUE.setRelease(this, v);
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // publish() 는 값을 먼저 쓴 뒤 락을 잡고 signal 하므로, 락 안에서 다시 확인하면 signal 을 놓치지 않음
+    private Object awaitPublished() {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            Object v;
+            while ((v = VALUE.getAcquire(this)) == INITIALIZING) {
+                try {
+                    published.await();
+                } catch (InterruptedException e) {
+                    // get() 은 InterruptedException 을 던지지 않으므로 끝까지 기다린 뒤 인터럽트 상태만 복원
+                    interrupted = true;
+                }
+            }
+            return v;
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mark.designpattern.a_singleton;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 싱글톤 초기화 정책 + 기동 시간 리포트<br>
+ * Eager Initialization, Static block initialization 은 클래스가 초기화되는 시점에 인스턴스를 만들기 때문에 애플리케이션 기동 경로에서 비용이 발생한다.<br>
+ * 어떤 싱글톤을 언제 초기화할지 정책으로 선택하고, 싱글톤 별 최초 getInstance() (클래스 초기화 포함) 비용을 측정해 리포트한다.<br>
+ * <br>
+ * 1. EAGER : 호출한 스레드에서 즉시 모두 초기화 (기동 경로에 비용 포함)<br>
+ * 2. LAZY : 아무것도 하지 않음 (최초 사용 시점에 초기화)<br>
+ * 3. BACKGROUND : 가상 스레드에서 미리 초기화하여 기동 경로에서 비용을 제거하면서 최초 요청 지연도 줄임<br>
+ * <br>
+ * CDS(Class Data Sharing) 아카이브는 클래스 로딩/검증 비용만 줄여주고 static 초기화(&lt;clinit&gt;)는 매 기동마다 실행되므로,
+ * -XX:SharedArchiveFile 로 실행해도 리포트의 수치는 그대로 static 초기화 비용을 나타낸다.<br>
+ * 예제 싱글톤이 test 소스셋에 있으므로 DesignPatternApplication 기동 경로와는 연결되지 않으며, 테스트/벤치마크에서 정책 별 초기화 비용을 비교하는 용도이다.<br>
+ * initializeFromSystemProperty() 는 -Dsingleton.init.policy=eager|lazy|background 로 정책을 고른다. (기본값 lazy)
+ */
+@Slf4j
+class SingletonInitializer {
+
+    static final String POLICY_PROPERTY = "singleton.init.policy";
+
+    enum InitPolicy {
+        EAGER, LAZY, BACKGROUND;
+
+        static InitPolicy fromSystemProperty() {
+            return parse(System.getProperty(POLICY_PROPERTY, LAZY.name()));
+        }
+
+        /**
+         * @throws IllegalArgumentException 알 수 없는 정책 (허용 값을 메시지에 포함)
+         */
+        static InitPolicy parse(String value) {
+            String name = value.trim().toUpperCase(Locale.ROOT);
+            for (InitPolicy policy : values()) {
+                if (policy.name().equals(name)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("unknown " + POLICY_PROPERTY + " : '" + value + "', allowed values : "
+                    + Arrays.stream(values()).map(p -> p.name().toLowerCase(Locale.ROOT)).toList());
+        }
+    }
+
+    record Timing(String name, long nanos) {}
+
+    record StartupReport(InitPolicy policy, List<Timing> timings) {
+
+        long totalNanos() {
+            return timings.stream().mapToLong(Timing::nanos).sum();
+        }
+
+        String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Singleton startup report (policy: %s)%n", policy));
+            for (Timing timing : timings) {
+                sb.append(String.format("  %-28s %10.3f ms%n", timing.name(), timing.nanos() / 1_000_000.0));
+            }
+            sb.append(String.format("  %-28s %10.3f ms", "total", totalNanos() / 1_000_000.0));
+            return sb.toString();
+        }
+    }
+
+    private final Map<String, Supplier<?>> singletons = new LinkedHashMap<>();
+
+    /**
+     * a_singleton 패키지의 Thread-Safe 한 싱글톤 기법을 모두 등록
+     */
+    static SingletonInitializer defaults() {
+        return new SingletonInitializer()
+                .register("EagerInitialization", EagerInitialization::getInstance)
+                .register("StaticBlockInitialization", StaticBlockInitialization::getInstance)
+                .register("ThreadSafeInitialization", ThreadSafeInitialization::getInstance)
+                .register("DoubleCheckedLocking", DoubleCheckedLocking::getInstance)
+                .register("BillPughSolution", BillPughSolution::getInstance)
+                .register("VarHandleInitialization", VarHandleInitialization::getInstance)
+                .register("EnumSingleton", EnumSingleton::getInstance);
+    }
+
+    /**
+     * -Dsingleton.init.policy 에 지정한 정책으로 defaults() 를 초기화 (테스트/벤치마크 실행 시 JVM 옵션으로 정책 선택)
+     *
+     * @throws IllegalArgumentException 알 수 없는 정책
+     */
+    static CompletableFuture<StartupReport> initializeFromSystemProperty() {
+        return defaults().initialize(InitPolicy.fromSystemProperty());
+    }
+
+    SingletonInitializer register(String name, Supplier<?> getInstance) {
+        singletons.put(name, getInstance);
+        return this;
+    }
+
+    CompletableFuture<StartupReport> initialize(InitPolicy policy) {
+        return switch (policy) {
+            case EAGER -> CompletableFuture.completedFuture(warmUp(policy));
+            case LAZY -> CompletableFuture.completedFuture(new StartupReport(policy, Collections.emptyList()));
+            case BACKGROUND -> {
+                CompletableFuture<StartupReport> future = new CompletableFuture<>();
+                Thread.ofVirtual().name("singleton-warmup").start(() -> {
+                    try {
+                        future.complete(warmUp(policy));
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                });
+                yield future;
+            }
+        };
+    }
+
+    private StartupReport warmUp(InitPolicy policy) {
+        List<Timing> timings = new ArrayList<>(singletons.size());
+
+        for (Map.Entry<String, Supplier<?>> singleton : singletons.entrySet()) {
+            long start = System.nanoTime();
+            singleton.getValue().get();
+            timings.add(new Timing(singleton.getKey(), System.nanoTime() - start));
+        }
+
+        StartupReport report = new StartupReport(policy, List.copyOf(timings));
+        log.info(report.format());
+        return report;
+    }
+}
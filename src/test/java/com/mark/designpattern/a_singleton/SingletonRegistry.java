@@ -0,0 +1,224 @@
+package com.mark.designpattern.a_singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 범위(Scope) 별 싱글톤 레지스트리<br>
+ * a_singleton 의 모든 기법은 JVM 전역에 하나의 인스턴스만 둔다. 무거운 인스턴스를 스레드나 테넌트 단위로 나누면 코어 간 경합을 줄일 수 있다.<br>
+ * <br>
+ * 1. GLOBAL : JVM 전역 하나 (EAGER 또는 LazyHolder 를 이용한 LAZY)<br>
+ * 2. THREAD : 플랫폼 스레드마다 하나 (ThreadLocal) - 스레드 풀처럼 재사용되는 스레드 전용. 가상 스레드에서 조회하면 IllegalStateException<br>
+ * 3. TENANT : runAsTenant() 로 바인딩된 테넌트마다 하나<br>
+ * <br>
+ * 레지스트리 자체는 Bill Pugh Solution 의 Holder 로 전역 하나만 생성되며, close() 하면 생성된 모든 인스턴스의 dispose 를 등록 역순으로 실행한다.<br>
+ * (Java 21 의 ScopedValue 는 preview 기능이므로 테넌트 바인딩은 ThreadLocal 로 구현했다.)
+ */
+public class SingletonRegistry implements AutoCloseable {
+
+    enum Scope { GLOBAL, THREAD, TENANT }
+
+    enum Init { EAGER, LAZY }
+
+    private static class SingletonRegistryHolder {
+        private static final SingletonRegistry INSTANCE = new SingletonRegistry();
+    }
+
+    public static SingletonRegistry getInstance() {
+        return SingletonRegistryHolder.INSTANCE;
+    }
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private final List<Binding<?>> bindings = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    SingletonRegistry() {}
+
+    // ============================== 등록 / 조회 ============================== //
+
+    public <T> Key<T> register(String name, Scope scope, Init init, Supplier<? extends T> supplier) {
+        return register(name, scope, init, supplier, instance -> {});
+    }
+
+    public <T> Key<T> register(String name, Scope scope, Init init, Supplier<? extends T> supplier, Consumer<? super T> dispose) {
+        if (closed) {
+            throw new IllegalStateException("SingletonRegistry is closed");
+        }
+        if (init == Init.EAGER && scope != Scope.GLOBAL) {
+            throw new IllegalArgumentException("EAGER init is only supported for GLOBAL scope : " + name);
+        }
+
+        Binding<T> binding = switch (scope) {
+            case GLOBAL -> new GlobalBinding<>(supplier, dispose);
+            case THREAD -> new ThreadBinding<>(supplier, dispose);
+            case TENANT -> new TenantBinding<>(name, supplier, dispose);
+        };
+
+        if (init == Init.EAGER) {
+            binding.get();
+        }
+
+        bindings.add(binding);
+        return new Key<>(name, scope, binding);
+    }
+
+    public <T> T get(Key<T> key) {
+        if (closed) {
+            throw new IllegalStateException("SingletonRegistry is closed");
+        }
+        return key.binding.get();
+    }
+
+    /**
+     * 등록 역순으로 생성된 모든 인스턴스를 dispose
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        List<Binding<?>> reversed = new ArrayList<>(bindings);
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            reversed.get(i).dispose();
+        }
+        bindings.clear();
+    }
+
+    // ============================== 테넌트 바인딩 ============================== //
+
+    public static void runAsTenant(String tenant, Runnable task) {
+        String previous = enterTenant(tenant);
+        try {
+            task.run();
+        } finally {
+            enterTenant(previous);
+        }
+    }
+
+    /**
+     * 현재 스레드의 테넌트를 바꾸고 이전 테넌트를 반환 (벤치마크처럼 스레드 단위로 고정할 때 사용)
+     */
+    static String enterTenant(String tenant) {
+        String previous = CURRENT_TENANT.get();
+        if (tenant == null) {
+            CURRENT_TENANT.remove();
+        } else {
+            CURRENT_TENANT.set(tenant);
+        }
+        return previous;
+    }
+
+    // ============================== Key / Binding ============================== //
+
+    record Key<T>(String name, Scope scope, Binding<T> binding) {}
+
+    abstract static class Binding<T> {
+        final Supplier<? extends T> supplier;
+        final Consumer<? super T> dispose;
+
+        Binding(Supplier<? extends T> supplier, Consumer<? super T> dispose) {
+            this.supplier = supplier;
+            this.dispose = dispose;
+        }
+
+        abstract T get();
+
+        abstract void dispose();
+    }
+
+    private static final class GlobalBinding<T> extends Binding<T> {
+        private final LazyHolder<T> holder;
+
+        GlobalBinding(Supplier<? extends T> supplier, Consumer<? super T> dispose) {
+            super(supplier, dispose);
+            this.holder = LazyHolder.of(supplier);
+        }
+
+        @Override
+        T get() {
+            return holder.get();
+        }
+
+        @Override
+        void dispose() {
+            if (holder.isInitialized()) {
+                dispose.accept(holder.get());
+            }
+        }
+    }
+
+    /**
+     * 스레드마다 만든 인스턴스는 close() 시 dispose 하기 위해 created 에 계속 보관된다.<br>
+     * 풀의 플랫폼 스레드는 수가 제한되므로 문제가 없지만, 작업마다 새로 만드는 가상 스레드는 수가 무한히 늘어나 close() 하지 않는 전역 레지스트리에서 메모리가 계속 증가한다.<br>
+     * 따라서 가상 스레드는 THREAD 범위를 사용할 수 없다. (가상 스레드는 GLOBAL 또는 TENANT 범위 사용)
+     */
+    private static final class ThreadBinding<T> extends Binding<T> {
+        // 다른 스레드에서 만들어진 인스턴스도 close() 시 dispose 할 수 있도록 추적
+        private final Queue<T> created = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<T> local;
+
+        ThreadBinding(Supplier<? extends T> supplier, Consumer<? super T> dispose) {
+            super(supplier, dispose);
+            this.local = ThreadLocal.withInitial(() -> {
+                T instance = supplier.get();
+                created.add(instance);
+                return instance;
+            });
+        }
+
+        @Override
+        T get() {
+            if (Thread.currentThread().isVirtual()) {
+                throw new IllegalStateException("THREAD scope is for pooled platform threads only, use GLOBAL or TENANT scope on virtual threads");
+            }
+            return local.get();
+        }
+
+        @Override
+        void dispose() {
+            T instance;
+            while ((instance = created.poll()) != null) {
+                dispose.accept(instance);
+            }
+            local.remove();
+        }
+    }
+
+    private static final class TenantBinding<T> extends Binding<T> {
+        private final String name;
+        private final Map<String, T> instances = new ConcurrentHashMap<>();
+
+        TenantBinding(String name, Supplier<? extends T> supplier, Consumer<? super T> dispose) {
+            super(supplier, dispose);
+            this.name = name;
+        }
+
+        @Override
+        T get() {
+            String tenant = CURRENT_TENANT.get();
+            if (tenant == null) {
+                throw new IllegalStateException("No tenant bound for " + name + ", call runAsTenant() first");
+            }
+
+            // 이미 생성된 테넌트는 computeIfAbsent 의 락 없이 get 만으로 조회
+            T instance = instances.get(tenant);
+            return instance != null ? instance : instances.computeIfAbsent(tenant, t -> supplier.get());
+        }
+
+        @Override
+        void dispose() {
+            instances.values().forEach(dispose);
+            instances.clear();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mark.designpattern.a_singleton;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * 싱글톤 유일성 스트레스 하네스<br>
+ * 여러 스레드를 CountDownLatch 앞에 모두 대기시킨 뒤 동시에 출발시켜 getInstance() 최초 접근 경쟁을 최대한 겹치게 만든다.<br>
+ * 라운드마다 반환된 인스턴스의 식별자(identity) 개수를 세어 2개 이상이면 중복 생성이 일어난 것으로 판단한다.<br>
+ * 지연 초기화 계열은 라운드마다 static 필드를 null 로 되돌려(reset) 최초 접근 경쟁을 반복 재현한다.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class SingletonStressHarness {
+
+    /**
+     * @param racyRounds  인스턴스가 2개 이상 생성된 라운드 수
+     * @param maxDistinct 한 라운드에서 관측된 최대 인스턴스 수
+     */
+    record Result(String name, int threads, int rounds, int racyRounds, int maxDistinct) {
+
+        double duplicateRate() {
+            return (double) racyRounds / rounds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s { threads: %d, rounds: %d, racyRounds: %d, maxDistinct: %d, duplicateRate: %.2f%% }",
+                    name, threads, rounds, racyRounds, maxDistinct, duplicateRate() * 100);
+        }
+    }
+
+    static Result run(String name, Supplier<?> getInstance, Runnable reset, ThreadFactory factory, int threads, int rounds) throws InterruptedException {
+        int racyRounds = 0;
+        int maxDistinct = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            reset.run();
+
+            int distinct = race(getInstance, factory, threads);
+            if (distinct > 1) {
+                racyRounds++;
+            }
+            maxDistinct = Math.max(maxDistinct, distinct);
+        }
+
+        return new Result(name, threads, rounds, racyRounds, maxDistinct);
+    }
+
+    private static int race(Supplier<?> getInstance, ThreadFactory factory, int threads) throws InterruptedException {
+        Object[] instances = new Object[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            factory.newThread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    instances[index] = getInstance.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // 모든 스레드가 출발선에 선 뒤 동시에 출발
+        ready.await();
+        start.countDown();
+        done.await();
+
+        // done.await() 가 happens-before 를 보장하므로 배열 결과를 그대로 읽어도 안전
+        Set<Object> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(identities, instances);
+        return identities.size();
+    }
+
+    /**
+     * 지연 초기화 싱글톤의 static 필드를 null 로 되돌리는 reset 동작 (테스트 전용)
+     */
+    static Runnable resetField(Class<?> type, String fieldName) {
+        try {
+            Field field = type.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return () -> {
+                try {
+                    field.set(null, null);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no field " + fieldName, e);
+        }
+    }
+
+    /**
+     * 클래스 초기화 시점에 한 번만 생성되는 기법(Eager, Static block, Bill Pugh, Enum)은 되돌릴 수 없으므로 reset 하지 않는다.
+     */
+    static Runnable noReset() {
+        return () -> {};
+    }
+}
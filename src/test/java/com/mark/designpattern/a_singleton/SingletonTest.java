@@ -1,10 +1,27 @@
 package com.mark.designpattern.a_singleton;
 
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.mark.designpattern.a_singleton.SingletonInitializer.*;
+import static com.mark.designpattern.a_singleton.SingletonRegistry.*;
+import static com.mark.designpattern.a_singleton.SingletonStressHarness.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * <b>싱글톤 패턴 (Singleton Pattern)</b><br>
@@ -20,8 +37,10 @@ import static org.assertj.core.api.Assertions.assertThat;
  * 4. Thread safe initialization<br>
  * 5. Double-Checked Locking<br>
  * 6. ***Bill Pugh Solution<br>
- * 7. ***Enum 이용
+ * 7. ***Enum 이용<br>
+ * 8. VarHandle(LazyHolder) 이용
  */
+@Slf4j
 public class SingletonTest {
 
     /**
@@ -105,6 +124,239 @@ public class SingletonTest {
     @Test
     public void enumTest() {
         EnumSingleton instance = EnumSingleton.getInstance();
-        assertThat(instance.getClient()).isInstanceOf(ConcurrentHashMap.class);
+        assertThat(instance.getClient()).isInstanceOf(ClientRegistry.class);
+        assertThat(instance.getClient()).isSameAs(EnumSingleton.getInstance().getClient());
+    }
+
+    /**
+     * 샤드 단위 크기 제한(LRU) + TTL 만료 + 히트/미스/제거 카운터
+     */
+    @Test
+    public void clientRegistryTest() {
+        AtomicLong now = new AtomicLong();
+        ClientRegistry registry = new ClientRegistry(1, 2, Duration.ofNanos(100), now::get);
+
+        registry.put("a", "1");
+        registry.put("b", "2");
+        assertThat(registry.get("a")).isEqualTo("1");
+
+        // 용량 초과 시 가장 오래 사용하지 않은 b 제거
+        registry.put("c", "3");
+        assertThat(registry.get("b")).isNull();
+        assertThat(registry.size()).isEqualTo(2);
+
+        // TTL 경과 후 만료
+        now.addAndGet(100);
+        assertThat(registry.get("a")).isNull();
+
+        ClientRegistry.Stats stats = registry.stats();
+        log.info(stats.toString());
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(stats.expirations()).isEqualTo(1);
+    }
+
+    /**
+     * VarHandle acquire/release 와 CAS 를 이용한 Lock-Free 지연 초기화
+     * 최초 초기화 이후에는 synchronized 없이 acquire 읽기 한 번으로 인스턴스를 반환
+     * 클래스 단위인 Bill Pugh Solution 과 달리 필드 단위로 지연 초기화를 적용할 수 있음
+     */
+    @Test
+    public void varHandleInitializationTest() {
+        VarHandleInitialization instance1 = VarHandleInitialization.getInstance();
+        VarHandleInitialization instance2 = VarHandleInitialization.getInstance();
+        assertThat(instance1).isSameAs(instance2);
+    }
+
+    /**
+     * 동시에 get() 을 호출해도 supplier 는 라운드마다 정확히 한 번만 실행되어야 한다.
+     */
+    @Test
+    public void lazyHolderSupplierOnceTest() throws InterruptedException {
+        int rounds = 50;
+        AtomicInteger created = new AtomicInteger();
+        AtomicReference<LazyHolder<Object>> holder = new AtomicReference<>();
+
+        Result result = run("LazyHolder", () -> holder.get().get(),
+                () -> holder.set(LazyHolder.of(() -> {
+                    created.incrementAndGet();
+                    return new Object();
+                })),
+                Thread.ofVirtual().factory(), 512, rounds);
+
+        log.info(result.toString());
+        assertThat(result.maxDistinct()).isEqualTo(1);
+        assertThat(created.get()).isEqualTo(rounds);
+    }
+
+    /**
+     * supplier 가 블로킹(100ms)되는 동안 대기하는 가상 스레드가 캐리어 스레드를 점유(spin)하면 supplier 를 실행하는 가상 스레드가 스케줄되지 못해 멈춘다.<br>
+     * 캐리어 스레드 수보다 훨씬 많은 가상 스레드가 동시에 get() 을 호출해도 제시간에 끝나야 한다.
+     */
+    @Test
+    public void lazyHolderBlockingSupplierTest() {
+        AtomicInteger created = new AtomicInteger();
+        LazyHolder<Object> holder = LazyHolder.of(() -> {
+            created.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object();
+        });
+
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                int threads = Runtime.getRuntime().availableProcessors() * 8;
+                for (int i = 0; i < threads; i++) {
+                    executor.submit(() -> seen.add(holder.get()));
+                }
+            }
+        });
+
+        assertThat(seen).hasSize(1);
+        assertThat(created.get()).isEqualTo(1);
+    }
+
+    /**
+     * 범위(GLOBAL, THREAD, TENANT) 별 싱글톤과 close() 시 dispose 라이프사이클
+     */
+    @Test
+    public void singletonRegistryTest() throws InterruptedException {
+        assertThat(SingletonRegistry.getInstance()).isSameAs(SingletonRegistry.getInstance());
+
+        List<Object> disposed = new ArrayList<>();
+        SingletonRegistry registry = new SingletonRegistry();
+
+        Key<Object> global = registry.register("global", Scope.GLOBAL, Init.EAGER, Object::new, disposed::add);
+        Key<Object> thread = registry.register("thread", Scope.THREAD, Init.LAZY, Object::new, disposed::add);
+        Key<Object> tenant = registry.register("tenant", Scope.TENANT, Init.LAZY, Object::new, disposed::add);
+
+        // GLOBAL : 어느 스레드에서 조회해도 동일
+        Object globalInstance = registry.get(global);
+        AtomicReference<Object> fromOtherThread = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> fromOtherThread.set(registry.get(global))).join();
+        assertThat(fromOtherThread.get()).isSameAs(globalInstance);
+
+        // THREAD : 스레드마다 다른 인스턴스
+        Object threadInstance = registry.get(thread);
+        assertThat(registry.get(thread)).isSameAs(threadInstance);
+        Thread.ofPlatform().start(() -> fromOtherThread.set(registry.get(thread))).join();
+        assertThat(fromOtherThread.get()).isNotSameAs(threadInstance);
+
+        // THREAD : 가상 스레드는 스레드마다 인스턴스가 쌓이므로 사용 불가
+        AtomicReference<Throwable> fromVirtualThread = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                registry.get(thread);
+            } catch (IllegalStateException e) {
+                fromVirtualThread.set(e);
+            }
+        }).join();
+        assertThat(fromVirtualThread.get()).isInstanceOf(IllegalStateException.class);
+
+        // TENANT : 테넌트마다 다른 인스턴스, 같은 테넌트는 스레드가 달라도 동일
+        AtomicReference<Object> tenantA = new AtomicReference<>();
+        AtomicReference<Object> tenantB = new AtomicReference<>();
+        runAsTenant("A", () -> tenantA.set(registry.get(tenant)));
+        runAsTenant("B", () -> tenantB.set(registry.get(tenant)));
+        assertThat(tenantA.get()).isNotSameAs(tenantB.get());
+        Thread.ofVirtual().start(() -> runAsTenant("A", () -> fromOtherThread.set(registry.get(tenant)))).join();
+        assertThat(fromOtherThread.get()).isSameAs(tenantA.get());
+
+        // close : 생성된 인스턴스 5개(global 1, thread 2, tenant 2) 모두 dispose, 이후 조회 불가
+        registry.close();
+        assertThat(disposed).hasSize(5);
+        assertThat(disposed.get(disposed.size() - 1)).isSameAs(globalInstance);
+        assertThatThrownBy(() -> registry.get(global))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * 초기화 정책(EAGER, LAZY, BACKGROUND) 별 싱글톤 기동 시간 리포트
+     */
+    @Test
+    public void singletonInitializerTest() throws Exception {
+        SingletonInitializer initializer = SingletonInitializer.defaults();
+
+        StartupReport lazy = initializer.initialize(InitPolicy.LAZY).get();
+        assertThat(lazy.timings()).isEmpty();
+
+        StartupReport eager = initializer.initialize(InitPolicy.EAGER).get();
+        assertThat(eager.timings()).extracting(Timing::name).contains("EagerInitialization", "BillPughSolution", "EnumSingleton");
+
+        // 가상 스레드에서 비동기로 초기화
+        StartupReport background = initializer.initialize(InitPolicy.BACKGROUND).get(5, TimeUnit.SECONDS);
+        assertThat(background.timings()).hasSameSizeAs(eager.timings());
+        assertThat(background.totalNanos()).isPositive();
+
+        // -Dsingleton.init.policy 로 정책 선택 (대소문자 무시, 기본값 lazy)
+        String previous = System.getProperty(POLICY_PROPERTY);
+        try {
+            System.clearProperty(POLICY_PROPERTY);
+            assertThat(initializeFromSystemProperty().get().policy()).isEqualTo(InitPolicy.LAZY);
+
+            System.setProperty(POLICY_PROPERTY, " Eager ");
+            StartupReport fromProperty = initializeFromSystemProperty().get();
+            assertThat(fromProperty.policy()).isEqualTo(InitPolicy.EAGER);
+            assertThat(fromProperty.timings()).hasSameSizeAs(eager.timings());
+
+            System.setProperty(POLICY_PROPERTY, "eagr");
+            assertThatThrownBy(SingletonInitializer::initializeFromSystemProperty)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("eagr")
+                    .hasMessageContaining("[eager, lazy, background]");
+        } finally {
+            if (previous == null) {
+                System.clearProperty(POLICY_PROPERTY);
+            } else {
+                System.setProperty(POLICY_PROPERTY, previous);
+            }
+        }
+    }
+
+    /**
+     * 수백 개의 플랫폼 스레드를 동시에 출발시켜 최초 getInstance() 경쟁 상황에서 인스턴스 유일성 검증
+     * Lazy initialization 은 Thread Safe 하지 않으므로 중복 생성률만 기록하고 나머지 기법은 반드시 1개여야 한다.
+     */
+    @Test
+    public void platformThreadStressTest() throws InterruptedException {
+        stress(Thread.ofPlatform().factory(), 256);
+    }
+
+    /**
+     * 가상 스레드는 생성 비용이 작아 훨씬 많은 스레드로 경쟁 상황을 만들 수 있다.
+     */
+    @Test
+    public void virtualThreadStressTest() throws InterruptedException {
+        stress(Thread.ofVirtual().factory(), 1024);
+    }
+
+    private void stress(ThreadFactory factory, int threads) throws InterruptedException {
+        int rounds = 50;
+
+        Result lazy = run("LazyInitialization", LazyInitialization::getInstance,
+                resetField(LazyInitialization.class, "instance"), factory, threads, rounds);
+        log.info(lazy.toString());
+
+        Result[] safe = {
+                run("EagerInitialization", EagerInitialization::getInstance, noReset(), factory, threads, 1),
+                run("StaticBlockInitialization", StaticBlockInitialization::getInstance, noReset(), factory, threads, 1),
+                run("ThreadSafeInitialization", ThreadSafeInitialization::getInstance,
+                        resetField(ThreadSafeInitialization.class, "instance"), factory, threads, rounds),
+                run("DoubleCheckedLocking", DoubleCheckedLocking::getInstance,
+                        resetField(DoubleCheckedLocking.class, "instance"), factory, threads, rounds),
+                run("BillPughSolution", BillPughSolution::getInstance, noReset(), factory, threads, 1),
+                run("VarHandleInitialization", VarHandleInitialization::getInstance, noReset(), factory, threads, 1),
+                run("EnumSingleton", EnumSingleton::getInstance, noReset(), factory, threads, 1)
+        };
+
+        for (Result result : safe) {
+            log.info(result.toString());
+            assertThat(result.maxDistinct()).as(result.name()).isEqualTo(1);
+        }
     }
 }
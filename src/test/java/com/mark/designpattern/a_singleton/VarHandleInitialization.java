@@ -0,0 +1,18 @@
+package com.mark.designpattern.a_singleton;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class VarHandleInitialization {
+
+    /**
+     * LazyHolder 가 최초 get() 호출 시 CAS 로 한 번만 생성하고 release 로 게시
+     * 이후 호출은 acquire 읽기 한 번으로 끝나며 synchronized 를 사용하지 않음
+     */
+    private static final LazyHolder<VarHandleInitialization> HOLDER = LazyHolder.of(VarHandleInitialization::new);
+
+    public static VarHandleInitialization getInstance() {
+        return HOLDER.get();
+    }
+}
@@ -0,0 +1,318 @@
+package com.mark.designpattern.b_strategy;
+
+import com.mark.designpattern.common.Log2Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 실시간 지연시간 통계 기반 적응형 전략 선택기<br>
+ * 클라이언트가 전략을 직접 고르는 대신, 전략 별 지연시간/오류율을 기록하고 현재 가장 빠르면서 정상(healthy)인 전략으로 호출을 보낸다.<br>
+ * 선택 정책(SelectionPolicy)은 EWMA, Power of Two Choices, Epsilon-Greedy 중 교체할 수 있다. (전략 패턴을 전략 선택에 다시 적용)<br>
+ * 지연시간 통계(EWMA, 백분위)는 성공한 호출만 반영한다. 실패한 호출은 지연시간 대신 EWMA 에 벌점(FAILURE_PENALTY 배, 최대 MAX_PENALISED_NANOS)을 주므로 빠르게 실패하는 전략이 가장 빠른 전략으로 보이지 않는다.<br>
+ * 오류율(EWMA)이 maxErrorRate 를 넘으면 비정상으로 보고 제외하며, 마지막 실패 후 retryAfter 가 지나면 한 번의 시험 호출(probe)을 정책과 관계없이 그 전략으로 보낸다. (half-open)<br>
+ * 시험 호출이 성공하면 오류율과 벌점 받은 EWMA 를 실제 지연시간으로 초기화해 다시 선택 대상이 되고(closed), 실패하면 다시 retryAfter 동안 제외된다.<br>
+ * 통계는 불변 스냅샷(Stats)을 CAS 로 교체하므로 호출이 한 전략에 몰려도 스레드가 모니터 락에서 대기하지 않는다.<br>
+ * <br>
+ * run() 은 선택한 전략을 한 번만 실행하고 예외를 그대로 던진다.<br>
+ * runWithFailover() 는 실패하면 남은 전략으로 다시 실행하므로, 실패한 호출이 실제로는 처리되었을 수 있는 작업(예: 타임아웃 난 결제)은 중복 실행될 수 있다.
+ * 호출이 멱등(idempotent, 예: 같은 결제 키로 중복 승인 방지)한 경우에만 사용해야 한다.<br>
+ * <br>
+ * IStrategy, PaymentIStrategy 어느 전략이든 감쌀 수 있다.<br>
+ * selector.run(s -&gt; s.pay(amount)), selector.run(IStrategy::doSomething)
+ */
+public class AdaptiveSelector<S> {
+
+    // EWMA 가중치 : 최근 관측값 반영 비율
+    private static final double ALPHA = 0.2;
+
+    // 실패한 호출마다 EWMA 지연시간에 곱하는 벌점
+    private static final double FAILURE_PENALTY = 2.0;
+
+    // 벌점 상한 : 장애가 길어져도 EWMA 가 무한대로 커지지 않도록
+    static final double MAX_PENALISED_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private static final double DEFAULT_MAX_ERROR_RATE = 0.5;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final List<Candidate<S>> candidates;
+    private final SelectionPolicy policy;
+    private final double maxErrorRate;
+    private final long retryAfterNanos;
+
+    public AdaptiveSelector(List<S> strategies, SelectionPolicy policy) {
+        this(strategies, policy, DEFAULT_MAX_ERROR_RATE, DEFAULT_RETRY_AFTER);
+    }
+
+    /**
+     * @param maxErrorRate 이 오류율(EWMA, 0 초과 1 이하)을 넘으면 비정상. 연속 실패 n 번이면 오류율은 1 - 0.8^n 이므로 0.5 는 4번, 0.15 는 1번 연속 실패에 비정상이 된다.
+     * @param retryAfter   비정상 전략에 시험 호출을 한 번 허용하기까지 기다리는 시간 (half-open)
+     */
+    public AdaptiveSelector(List<S> strategies, SelectionPolicy policy, double maxErrorRate, Duration retryAfter) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("strategies must not be empty");
+        }
+        if (!(maxErrorRate > 0 && maxErrorRate <= 1)) {
+            throw new IllegalArgumentException("maxErrorRate must be in (0, 1] : " + maxErrorRate);
+        }
+        if (retryAfter.isNegative()) {
+            throw new IllegalArgumentException("retryAfter must not be negative : " + retryAfter);
+        }
+
+        List<Candidate<S>> list = new ArrayList<>(strategies.size());
+        for (S strategy : strategies) {
+            list.add(new Candidate<>(strategy));
+        }
+        this.candidates = Collections.unmodifiableList(list);
+        this.policy = policy;
+        this.maxErrorRate = maxErrorRate;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    /**
+     * 정책으로 고른 전략을 한 번만 실행 (실패하면 오류로 기록하고 예외를 그대로 던짐)
+     */
+    public void run(Consumer<? super S> call) {
+        Candidate<S> probe = probe();
+        if (probe != null) {
+            invoke(probe, call, true);
+        } else {
+            invoke(policy.select(healthy()), call, false);
+        }
+    }
+
+    /**
+     * 정책으로 고른 전략을 실행하고, 실패하면 아직 시도하지 않은 전략으로 넘어감<br>
+     * 같은 호출이 여러 전략에서 실행될 수 있으므로 call 은 멱등이어야 한다. (예: 결제는 같은 결제 키로 중복 승인을 막는 경우에만 사용)
+     */
+    public void runWithFailover(Consumer<? super S> call) {
+        List<Candidate<S>> remaining = new ArrayList<>(healthy());
+        Candidate<S> candidate = probe();
+        boolean probing = candidate != null;
+        if (!probing) {
+            candidate = policy.select(remaining);
+        }
+
+        while (true) {
+            try {
+                invoke(candidate, call, probing);
+                return;
+            } catch (RuntimeException e) {
+                remaining.remove(candidate);
+                if (remaining.isEmpty()) {
+                    throw e;
+                }
+            }
+            candidate = policy.select(remaining);
+            probing = false;
+        }
+    }
+
+    /**
+     * @param probe 비정상 전략의 시험 호출 : 성공하면 통계를 초기화
+     */
+    private void invoke(Candidate<S> candidate, Consumer<? super S> call, boolean probe) {
+        long start = System.nanoTime();
+        try {
+            call.accept(candidate.strategy);
+        } catch (RuntimeException e) {
+            candidate.failure(System.nanoTime() - start);
+            throw e;
+        }
+        if (probe) {
+            candidate.recovered(System.nanoTime() - start);
+        } else {
+            candidate.success(System.nanoTime() - start);
+        }
+    }
+
+    public List<Candidate<S>> candidates() {
+        return candidates;
+    }
+
+    /**
+     * 오류율이 기준 이하인 전략 목록 (모두 비정상이면 전체를 후보로 사용)
+     */
+    private List<Candidate<S>> healthy() {
+        List<Candidate<S>> healthy = new ArrayList<>(candidates.size());
+        for (Candidate<S> candidate : candidates) {
+            if (candidate.errorRate() <= maxErrorRate) {
+                healthy.add(candidate);
+            }
+        }
+        return healthy.isEmpty() ? candidates : healthy;
+    }
+
+    /**
+     * 재시도 대기 시간이 지난 비정상 전략 (없으면 null)<br>
+     * 시험 호출 권한은 한 스레드만 얻으며, 정책이 벌점 받은 EWMA 로 다른 전략을 고르지 않도록 호출을 그대로 이 전략에 보낸다.
+     */
+    private Candidate<S> probe() {
+        long now = System.nanoTime();
+        for (Candidate<S> candidate : candidates) {
+            if (candidate.errorRate() > maxErrorRate && candidate.tryProbe(now, retryAfterNanos)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // ============================== 선택 정책 ============================== //
+
+    public interface SelectionPolicy {
+        <S> Candidate<S> select(List<Candidate<S>> candidates);
+
+        /**
+         * EWMA 지연시간이 가장 작은 전략 (성공도 실패도 한 적 없는 전략은 0 이므로 먼저 시도됨)
+         */
+        static SelectionPolicy ewma() {
+            return new SelectionPolicy() {
+                @Override
+                public <S> Candidate<S> select(List<Candidate<S>> candidates) {
+                    Candidate<S> best = candidates.get(0);
+                    for (Candidate<S> candidate : candidates) {
+                        if (candidate.ewmaNanos() < best.ewmaNanos()) {
+                            best = candidate;
+                        }
+                    }
+                    return best;
+                }
+            };
+        }
+
+        /**
+         * 무작위로 두 개를 뽑아 더 빠른 쪽 선택 : 모든 호출이 한 전략에 몰리는 현상(herd)을 방지
+         */
+        static SelectionPolicy powerOfTwoChoices() {
+            return new SelectionPolicy() {
+                @Override
+                public <S> Candidate<S> select(List<Candidate<S>> candidates) {
+                    if (candidates.size() == 1) {
+                        return candidates.get(0);
+                    }
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int i = random.nextInt(candidates.size());
+                    int j = random.nextInt(candidates.size() - 1);
+                    if (j >= i) {
+                        j++;
+                    }
+                    Candidate<S> a = candidates.get(i);
+                    Candidate<S> b = candidates.get(j);
+                    return a.ewmaNanos() <= b.ewmaNanos() ? a : b;
+                }
+            };
+        }
+
+        /**
+         * epsilon 확률로 무작위 탐색, 나머지는 EWMA 최솟값 선택
+         */
+        static SelectionPolicy epsilonGreedy(double epsilon) {
+            SelectionPolicy greedy = ewma();
+            return new SelectionPolicy() {
+                @Override
+                public <S> Candidate<S> select(List<Candidate<S>> candidates) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    if (random.nextDouble() < epsilon) {
+                        return candidates.get(random.nextInt(candidates.size()));
+                    }
+                    return greedy.select(candidates);
+                }
+            };
+        }
+    }
+
+    // ============================== 전략 별 통계 ============================== //
+
+    public static final class Candidate<S> {
+        final S strategy;
+        final Log2Histogram histogram = new Log2Histogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        // EWMA 지연시간/오류율은 함께 바뀌므로 불변 스냅샷 하나를 CAS 로 교체 (락 없음)
+        private final AtomicReference<Stats> stats = new AtomicReference<>(Stats.INITIAL);
+        private final AtomicLong lastFailureNanos = new AtomicLong();
+
+        Candidate(S strategy) {
+            this.strategy = strategy;
+        }
+
+        public S strategy() {
+            return strategy;
+        }
+
+        public long calls() {
+            return calls.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public double ewmaNanos() {
+            return stats.get().ewmaNanos();
+        }
+
+        public double errorRate() {
+            return stats.get().errorRate();
+        }
+
+        public long percentileNanos(double percentile) {
+            return histogram.percentile(percentile);
+        }
+
+        void success(long nanos) {
+            calls.increment();
+            histogram.record(nanos);
+            stats.updateAndGet(s -> s.success(nanos));
+        }
+
+        // 시험 호출 성공 : 장애 동안 쌓인 벌점과 오류율을 버리고 실제 지연시간부터 다시 시작
+        void recovered(long nanos) {
+            calls.increment();
+            histogram.record(nanos);
+            stats.set(new Stats(nanos, 0));
+        }
+
+        // 실패한 호출의 지연시간은 통계에 넣지 않고 EWMA 에 벌점만 부여
+        void failure(long nanos) {
+            calls.increment();
+            errors.increment();
+            lastFailureNanos.set(System.nanoTime());
+            stats.updateAndGet(s -> s.failure(nanos));
+        }
+
+        /**
+         * 재시도 대기 시간이 지났으면 시험 호출 권한을 얻음 : lastFailureNanos 를 지금으로 당겨(CAS) 다른 스레드는 다음 대기 시간까지 제외
+         */
+        boolean tryProbe(long now, long retryAfterNanos) {
+            long last = lastFailureNanos.get();
+            return now - last > retryAfterNanos && lastFailureNanos.compareAndSet(last, now);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s { calls: %d, errors: %d, ewma: %.0fns, p50: %dns, p99: %dns }",
+                    strategy.getClass().getSimpleName(), calls(), errors(), ewmaNanos(), percentileNanos(50), percentileNanos(99));
+        }
+
+        private record Stats(double ewmaNanos, double errorRate) {
+            static final Stats INITIAL = new Stats(0, 0);
+
+            Stats success(long nanos) {
+                return new Stats(ewmaNanos == 0 ? nanos : ALPHA * nanos + (1 - ALPHA) * ewmaNanos, (1 - ALPHA) * errorRate);
+            }
+
+            Stats failure(long nanos) {
+                return new Stats(Math.min(Math.max(ewmaNanos, nanos) * FAILURE_PENALTY, MAX_PENALISED_NANOS), ALPHA + (1 - ALPHA) * errorRate);
+            }
+        }
+    }
+}
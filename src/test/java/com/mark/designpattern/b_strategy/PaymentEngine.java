@@ -0,0 +1,287 @@
+package com.mark.designpattern.b_strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.mark.designpattern.b_strategy.PaymentStrategy.*;
+
+/**
+ * 배치/비동기 결제 실행 엔진<br>
+ * ShoppingCart.pay() 는 장바구니 하나씩 동기로 결제 전략을 실행한다.<br>
+ * 엔진은 결제 전략(KakaoCardStrategy, NaverCardStrategy ...) 클래스 별로 크기가 제한된 대기열(Lane)을 두고, 대기열마다 고정된 수의 가상 스레드가 결제를 묶어서(batch) 꺼내 실행한 뒤 CompletableFuture 로 결과를 돌려준다.<br>
+ * <br>
+ * 1. 동시 실행 수 제한 : 결제 전략 별 작업 스레드 수(maxConcurrencyPerStrategy)만큼만 동시에 결제<br>
+ * 2. Back-Pressure : 결제 전략의 대기열이 가득 차면 제출하는 스레드가 빈 자리가 생길 때까지 대기하므로, 처리 속도보다 빠르게 장바구니와 Future 가 메모리에 쌓이지 않는다.<br>
+ *    대기열은 결제 전략 별로 분리되어 있어 느린 결제 수단(예: Kakao)의 대기열이 가득 차도 이미 제출된 다른 결제 수단(예: Naver)의 결제는 막히지 않는다.<br>
+ * 3. 일괄 결제 : 작업 스레드는 대기열에서 최대 batchSize 건을 한 번에 꺼내 같은 결제 수단 객체의 연속된 결제를 PaymentIStrategy.payAll(long[]) 한 번으로 실행<br>
+ * 4. 전략 별 처리량/지연시간 지표 수집 (지연시간은 성공한 결제만 집계)<br>
+ * <br>
+ * 대기열에서 기다리는 중에 cancel() 된 결제는 실행하지 않고, close() 이후의 제출은 RejectedExecutionException 으로 거부한다.
+ */
+class PaymentEngine implements AutoCloseable {
+
+    // 대기열이 가득 찼을 때 / 대기열이 비었을 때 종료 여부를 다시 확인하는 간격
+    private static final long RECHECK_MILLIS = 50;
+
+    record Payment(ShoppingCart cart, PaymentIStrategy method) {}
+
+    record Receipt(Payment payment, long amount, long latencyNanos) {}
+
+    private record Task(Payment payment, CompletableFuture<Receipt> future) {}
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxConcurrencyPerStrategy;
+    private final int queueCapacityPerStrategy;
+    private final int batchSize;
+    private final Map<Class<?>, Lane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param maxConcurrencyPerStrategy 결제 전략(클래스) 별 최대 동시 결제 수
+     */
+    PaymentEngine(int maxConcurrencyPerStrategy) {
+        this(maxConcurrencyPerStrategy, 1024, 64);
+    }
+
+    /**
+     * @param maxConcurrencyPerStrategy 결제 전략(클래스) 별 최대 동시 결제 수 (작업 스레드 수)
+     * @param queueCapacityPerStrategy  결제 전략 별 대기열 크기, 가득 차면 제출이 대기
+     * @param batchSize                 작업 스레드가 한 번에 꺼내는 최대 결제 수
+     */
+    PaymentEngine(int maxConcurrencyPerStrategy, int queueCapacityPerStrategy, int batchSize) {
+        if (maxConcurrencyPerStrategy <= 0) {
+            throw new IllegalArgumentException("maxConcurrencyPerStrategy must be positive : " + maxConcurrencyPerStrategy);
+        }
+        if (queueCapacityPerStrategy <= 0) {
+            throw new IllegalArgumentException("queueCapacityPerStrategy must be positive : " + queueCapacityPerStrategy);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+        }
+        this.maxConcurrencyPerStrategy = maxConcurrencyPerStrategy;
+        this.queueCapacityPerStrategy = queueCapacityPerStrategy;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 결제 전략 별로 묶어서 제출하고, 반환하는 Future 목록은 입력 순서를 유지<br>
+     * 대기열이 가득 찬 결제 전략이 있으면 자리가 생길 때까지 대기 (Back-Pressure)
+     *
+     * @throws RejectedExecutionException 엔진이 종료됨 (이미 제출한 결제는 취소)
+     * @throws InterruptedException       대기열에 빈 자리를 기다리는 중 인터럽트 (이미 제출한 결제는 취소)
+     */
+    List<CompletableFuture<Receipt>> payAll(List<Payment> payments) throws InterruptedException {
+        Map<Class<?>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            groups.computeIfAbsent(payments.get(i).method().getClass(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<CompletableFuture<Receipt>> results = new ArrayList<>(payments.size());
+        for (int i = 0; i < payments.size(); i++) {
+            results.add(null);
+        }
+
+        try {
+            for (List<Integer> group : groups.values()) {
+                for (int index : group) {
+                    results.set(index, pay(payments.get(index)));
+                }
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            // 아직 실행되지 않은 결제는 작업 스레드가 건너뜀
+            for (CompletableFuture<Receipt> future : results) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * 결제 전략의 대기열에 결제를 넣고 반환 (결제 완료를 기다리지 않음), 대기열이 가득 차면 자리가 생길 때까지 대기
+     *
+     * @throws RejectedExecutionException 엔진이 종료됨
+     */
+    CompletableFuture<Receipt> pay(Payment payment) throws InterruptedException {
+        if (closed) {
+            throw new RejectedExecutionException("payment engine closed");
+        }
+
+        Lane lane = lanes.computeIfAbsent(payment.method().getClass(), k -> new Lane());
+        Task task = new Task(payment, new CompletableFuture<>());
+        while (!lane.queue.offer(task, RECHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                throw new RejectedExecutionException("payment engine closed");
+            }
+        }
+
+        // close() 와 경합해 작업 스레드가 모두 끝난 뒤 들어간 결제는 되돌림 (이미 꺼내졌으면 꺼낸 쪽이 완료시킴)
+        if (closed && lane.queue.remove(task)) {
+            throw new RejectedExecutionException("payment engine closed");
+        }
+        return task.future();
+    }
+
+    Map<String, StrategyMetrics.Snapshot> metrics() {
+        Map<String, StrategyMetrics.Snapshot> snapshot = new LinkedHashMap<>();
+        lanes.forEach((type, lane) -> snapshot.put(type.getSimpleName(), lane.metrics.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * 새 제출을 거부하고, 대기열에 남은 결제를 모두 처리할 때까지 대기
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.close();
+
+        // 종료와 경합해 작업 스레드가 끝난 뒤 들어간 결제
+        RejectedExecutionException rejected = new RejectedExecutionException("payment engine closed");
+        for (Lane lane : lanes.values()) {
+            Task task;
+            while ((task = lane.queue.poll()) != null) {
+                task.future().completeExceptionally(rejected);
+            }
+        }
+    }
+
+    /**
+     * 결제 전략 하나의 대기열 + 작업 스레드 + 지표
+     */
+    private final class Lane {
+        final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(queueCapacityPerStrategy);
+        final StrategyMetrics metrics = new StrategyMetrics();
+
+        Lane() {
+            for (int i = 0; i < maxConcurrencyPerStrategy; i++) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            List<Task> batch = new ArrayList<>(batchSize);
+            while (true) {
+                Task first;
+                try {
+                    first = queue.poll(RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                // 같은 결제 수단 객체의 연속된 결제를 한 번에 실행
+                int from = 0;
+                while (from < batch.size()) {
+                    PaymentIStrategy method = batch.get(from).payment().method();
+                    int to = from + 1;
+                    while (to < batch.size() && batch.get(to).payment().method() == method) {
+                        to++;
+                    }
+                    payBatch(method, batch.subList(from, to));
+                    from = to;
+                }
+                batch.clear();
+            }
+        }
+
+        private void payBatch(PaymentIStrategy method, List<Task> tasks) {
+            List<Task> ready = new ArrayList<>(tasks.size());
+            long[] amounts = new long[tasks.size()];
+
+            for (Task task : tasks) {
+                // 대기열에서 기다리는 동안 취소된 결제는 실행하지 않음
+                if (task.future().isDone()) {
+                    continue;
+                }
+                try {
+                    amounts[ready.size()] = task.payment().cart().total();
+                    ready.add(task);
+                } catch (RuntimeException e) {
+                    metrics.failure();
+                    task.future().completeExceptionally(e);
+                }
+            }
+            if (ready.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                method.payAll(ready.size() == amounts.length ? amounts : Arrays.copyOf(amounts, ready.size()));
+            } catch (Throwable t) {
+                for (Task task : ready) {
+                    metrics.failure();
+                    task.future().completeExceptionally(t);
+                }
+                return;
+            }
+
+            long latency = System.nanoTime() - start;
+            for (int i = 0; i < ready.size(); i++) {
+                Task task = ready.get(i);
+                metrics.success(latency);
+                task.future().complete(new Receipt(task.payment(), amounts[i], latency));
+            }
+        }
+    }
+
+    static final class StrategyMetrics {
+        private final long createdAt = System.nanoTime();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void success(long latencyNanos) {
+            count.increment();
+            totalNanos.add(latencyNanos);
+            maxNanos.accumulate(latencyNanos);
+        }
+
+        // 실패는 지연시간에 섞지 않음 : 빠르게 실패한 결제가 평균 지연시간을 낮추거나 느린 타임아웃이 높이지 않도록
+        void failure() {
+            failures.increment();
+        }
+
+        /**
+         * count, 처리량, 지연시간은 성공한 결제 기준
+         */
+        Snapshot snapshot() {
+            long n = count.sum();
+            long elapsed = System.nanoTime() - createdAt;
+            return new Snapshot(
+                    n,
+                    failures.sum(),
+                    elapsed == 0 ? 0 : n * 1_000_000_000.0 / elapsed,
+                    n == 0 ? 0 : totalNanos.sum() / n,
+                    maxNanos.get()
+            );
+        }
+
+        record Snapshot(long count, long failures, double throughputPerSecond, long avgLatencyNanos, long maxLatencyNanos) {}
+    }
+}
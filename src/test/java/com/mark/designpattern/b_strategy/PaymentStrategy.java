@@ -4,14 +4,26 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 public class PaymentStrategy {
 
     // 전략 - 추상화된 알고리즘
     interface PaymentIStrategy {
-        void pay(int amount);
+        // 금액은 long : 장바구니 합계가 int 범위를 넘어도 좁히지 않고 그대로 결제
+        void pay(long amount);
+
+        // 같은 결제 수단으로 여러 건을 한 번에 결제 (기본은 한 건씩, 일괄 결제 API 가 있는 결제 수단은 재정의)
+        default void payAll(long[] amounts) {
+            for (long amount : amounts) {
+                pay(amount);
+            }
+        }
     }
 
     @AllArgsConstructor
@@ -22,9 +34,14 @@ public class PaymentStrategy {
         private String dateOfExpiry;
 
         @Override
-        public void pay(int amount) {
+        public void pay(long amount) {
             log.info("{}원 paid using Kakao Card", amount);
         }
+
+        @Override
+        public void payAll(long[] amounts) {
+            log.info("{}건 {}원 paid using Kakao Card", amounts.length, Arrays.stream(amounts).sum());
+        }
     }
 
     @AllArgsConstructor
@@ -33,9 +50,14 @@ public class PaymentStrategy {
         private String password;
 
         @Override
-        public void pay(int amount) {
+        public void pay(long amount) {
             log.info("{}원 paid using Naver Card", amount);
         }
+
+        @Override
+        public void payAll(long[] amounts) {
+            log.info("{}건 {}원 paid using Naver Card", amounts.length, Arrays.stream(amounts).sum());
+        }
     }
 
     // 컨텍스트 - 전략을 등록하고 실행
@@ -51,13 +73,97 @@ public class PaymentStrategy {
         }
 
         public void pay(PaymentIStrategy paymentMethod) {
-            int amount = 0;
+            paymentMethod.pay(total());
+        }
+
+        // 합계가 long 범위를 넘으면 조용히 음수가 되지 않도록 ArithmeticException 발생
+        public long total() {
+            long amount = 0;
 
             for (Item item : items) {
-                amount += item.price;
+                amount = Math.addExact(amount, item.price);
+            }
+
+            return amount;
+        }
+    }
+
+    /**
+     * 원시 타입 배열 기반 장바구니<br>
+     * List&lt;Item&gt; 는 품목마다 객체를 만들고 결제할 때마다 전체를 다시 순회해 합계를 구한다.<br>
+     * 가격은 확장 가능한 long[] 에, 품목명은 중복 없는 이름 테이블의 인덱스(int[])로 저장하고<br>
+     * 합계는 addItem 시점에 오버플로우를 검사하며 누적하므로 pay() 는 할당과 재순회 없이 O(1) 이다.
+     */
+    static class PrimitiveShoppingCart {
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private long[] prices;
+        private int[] nameIds;
+        private int size;
+        private long total;
+
+        // 품목명 테이블 : 같은 이름은 한 번만 저장
+        private final Map<String, Integer> nameTable = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        public PrimitiveShoppingCart() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        public PrimitiveShoppingCart(int initialCapacity) {
+            this.prices = new long[Math.max(initialCapacity, 1)];
+            this.nameIds = new int[prices.length];
+        }
+
+        public void addItem(Item item) {
+            addItem(item.name, item.price);
+        }
+
+        public void addItem(String name, long price) {
+            if (price < 0) {
+                throw new IllegalArgumentException("price must not be negative : " + price);
             }
 
-            paymentMethod.pay(amount);
+            // 합계 오버플로우 검사를 먼저 하여 실패 시 장바구니 상태가 바뀌지 않도록 함
+            long newTotal = Math.addExact(total, price);
+
+            if (size == prices.length) {
+                int newCapacity = prices.length + (prices.length >> 1) + 1;
+                prices = Arrays.copyOf(prices, newCapacity);
+                nameIds = Arrays.copyOf(nameIds, newCapacity);
+            }
+
+            prices[size] = price;
+            nameIds[size] = nameTable.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+            size++;
+            total = newTotal;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long total() {
+            return total;
+        }
+
+        public String name(int index) {
+            return names.get(nameIds[checkIndex(index)]);
+        }
+
+        public long price(int index) {
+            return prices[checkIndex(index)];
+        }
+
+        public void pay(PaymentIStrategy paymentMethod) {
+            paymentMethod.pay(total);
+        }
+
+        private int checkIndex(int index) {
+            return Objects.checkIndex(index, size);
         }
     }
 
@@ -0,0 +1,157 @@
+package com.mark.designpattern.b_strategy;
+
+import lombok.AllArgsConstructor;
+
+import java.util.Arrays;
+
+import static com.mark.designpattern.b_strategy.Strategy.IStrategy;
+
+/**
+ * 원시 타입 배열 정렬 전략<br>
+ * List&lt;Integer&gt; 를 Comparator 로 정렬하면 모든 원소가 박싱된 객체이고 비교마다 가상 호출이 발생한다. (o1 - o2 비교는 오버플로우 위험까지 있다)<br>
+ * int[] / long[] 을 그대로 정렬하는 전략군을 정의하고, 입력 크기에 따라 적절한 전략을 고른다.
+ */
+public class SortStrategy {
+
+    // 전략 - 정렬 알고리즘
+    interface SortIStrategy {
+        void sort(int[] values);
+        void sort(long[] values);
+    }
+
+    // 전략 알고리즘 - Dual-Pivot Quicksort (소규모 입력에 유리)
+    static class DualPivotSortStrategy implements SortIStrategy {
+        @Override
+        public void sort(int[] values) {
+            Arrays.sort(values);
+        }
+
+        @Override
+        public void sort(long[] values) {
+            Arrays.sort(values);
+        }
+    }
+
+    // 전략 알고리즘 - Fork/Join 병렬 정렬 (대규모 입력 + 멀티 코어에 유리)
+    static class ParallelSortStrategy implements SortIStrategy {
+        @Override
+        public void sort(int[] values) {
+            Arrays.parallelSort(values);
+        }
+
+        @Override
+        public void sort(long[] values) {
+            Arrays.parallelSort(values);
+        }
+    }
+
+    /**
+     * 전략 알고리즘 - LSD Radix Sort<br>
+     * 8 bit 씩 자릿수 별로 카운팅 정렬을 반복하므로 비교 없이 O(n * 자릿수) 로 정렬된다. (보조 배열 n 만큼 필요)<br>
+     * 부호 비트를 뒤집어 음수가 양수보다 앞에 오도록 한다.
+     */
+    static class RadixSortStrategy implements SortIStrategy {
+        private static final int RADIX = 256;
+
+        @Override
+        public void sort(int[] values) {
+            int[] src = values;
+            int[] dst = new int[values.length];
+            int[] count = new int[RADIX];
+
+            for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+                Arrays.fill(count, 0);
+                for (int v : src) {
+                    count[((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF]++;
+                }
+                for (int i = 1; i < RADIX; i++) {
+                    count[i] += count[i - 1];
+                }
+                for (int i = src.length - 1; i >= 0; i--) {
+                    int v = src[i];
+                    dst[--count[((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF]] = v;
+                }
+
+                int[] tmp = src;
+                src = dst;
+                dst = tmp;
+            }
+            // 패스 수(4)가 짝수이므로 결과는 원본 배열(values)에 위치
+        }
+
+        @Override
+        public void sort(long[] values) {
+            long[] src = values;
+            long[] dst = new long[values.length];
+            int[] count = new int[RADIX];
+
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                Arrays.fill(count, 0);
+                for (long v : src) {
+                    count[(int) (((v ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++;
+                }
+                for (int i = 1; i < RADIX; i++) {
+                    count[i] += count[i - 1];
+                }
+                for (int i = src.length - 1; i >= 0; i--) {
+                    long v = src[i];
+                    dst[--count[(int) (((v ^ Long.MIN_VALUE) >>> shift) & 0xFF)]] = v;
+                }
+
+                long[] tmp = src;
+                src = dst;
+                dst = tmp;
+            }
+            // 패스 수(8)가 짝수이므로 결과는 원본 배열(values)에 위치
+        }
+    }
+
+    /**
+     * 입력 크기에 따라 정렬 전략 선택
+     * 1. 8K 미만 : Dual-Pivot Quicksort (보조 배열/스레드 분배 비용이 더 큼)
+     * 2. 1M 미만 또는 단일 코어 : Radix Sort
+     * 3. 그 이상 : Parallel Sort
+     */
+    static SortIStrategy select(int length) {
+        if (length < (1 << 13)) {
+            return new DualPivotSortStrategy();
+        }
+        if (length < (1 << 20) || Runtime.getRuntime().availableProcessors() == 1) {
+            return new RadixSortStrategy();
+        }
+        return new ParallelSortStrategy();
+    }
+
+    /**
+     * 정렬할 배열과 선택된 정렬 전략을 IStrategy 로 노출 (StrategyContext 에 그대로 등록 가능)
+     */
+    @AllArgsConstructor
+    static class IntSortTask implements IStrategy {
+        private final int[] values;
+        private final SortIStrategy strategy;
+
+        IntSortTask(int[] values) {
+            this(values, select(values.length));
+        }
+
+        @Override
+        public void doSomething() {
+            strategy.sort(values);
+        }
+    }
+
+    @AllArgsConstructor
+    static class LongSortTask implements IStrategy {
+        private final long[] values;
+        private final SortIStrategy strategy;
+
+        LongSortTask(long[] values) {
+            this(values, select(values.length));
+        }
+
+        @Override
+        public void doSomething() {
+            strategy.sort(values);
+        }
+    }
+}
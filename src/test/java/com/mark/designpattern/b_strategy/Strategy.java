@@ -10,6 +10,11 @@ public class Strategy {
         void doSomething();
     }
 
+    // 전략 레지스트리 키
+    enum StrategyType {
+        A, B
+    }
+
     // 전략 알고리즘 A
     static class ConcreteStrategyA implements IStrategy {
         public void doSomething() {
@@ -0,0 +1,48 @@
+package com.mark.designpattern.b_strategy;
+
+import static com.mark.designpattern.b_strategy.Strategy.*;
+
+/**
+ * 전략 레지스트리 - enum 키(ordinal)로 배열을 인덱싱하여 O(1) 로 전략 실행<br>
+ * StrategyContext 는 하나의 가변 필드를 setStrategy 로 바꾸기 때문에 여러 스레드가 동시에 쓰거나 읽으면 안전하지 않다.<br>
+ * 레지스트리는 전략 배열을 Copy-On-Write 로 교체한다. 쓰기(교체)는 배열을 복사한 뒤 volatile 필드에 새 배열을 게시하고,<br>
+ * 읽기(실행)는 volatile 읽기 한 번 + 배열 인덱싱만 하므로 락 없이 항상 완전한 전략 테이블을 보게 된다.<br>
+ * 전략 교체는 드물고 실행은 매우 빈번한 경우에 적합하다.
+ */
+public class StrategyRegistry<K extends Enum<K>> {
+
+    // 교체 시 새 배열로 바꿔치기만 하고 기존 배열은 절대 수정하지 않음
+    private volatile IStrategy[] strategies;
+
+    public StrategyRegistry(Class<K> keyType) {
+        this.strategies = new IStrategy[keyType.getEnumConstants().length];
+    }
+
+    /**
+     * 전략 등록/교체 : 쓰기끼리만 synchronized 로 직렬화하고 읽기는 막지 않음
+     */
+    public synchronized void register(K key, IStrategy strategy) {
+        IStrategy[] copy = strategies.clone();
+        copy[key.ordinal()] = strategy;
+        strategies = copy;
+    }
+
+    public IStrategy get(K key) {
+        return strategies[key.ordinal()];
+    }
+
+    public void doSomething(K key) {
+        doSomething(key.ordinal());
+    }
+
+    /**
+     * int id (= ordinal) 로 직접 실행
+     */
+    public void doSomething(int id) {
+        IStrategy[] table = strategies;
+        if (id < 0 || id >= table.length || table[id] == null) {
+            throw new IllegalArgumentException("No strategy registered for id " + id);
+        }
+        table[id].doSomething();
+    }
+}
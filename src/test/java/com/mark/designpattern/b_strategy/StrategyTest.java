@@ -3,14 +3,27 @@ package com.mark.designpattern.b_strategy;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.mark.designpattern.b_strategy.PaymentStrategy.*;
+import static com.mark.designpattern.b_strategy.SortStrategy.*;
 import static com.mark.designpattern.b_strategy.Strategy.ConcreteStrategyA;
 import static com.mark.designpattern.b_strategy.Strategy.ConcreteStrategyB;
+import static com.mark.designpattern.b_strategy.Strategy.StrategyType;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * <b>전략 패턴 (Strategy Pattern)</b><br>
@@ -60,6 +73,27 @@ public class StrategyTest {
         context.doSomething();
     }
 
+    /**
+     * 클라이언트 - 레지스트리에 전략을 등록하고 키로 실행
+     */
+    @Test
+    public void strategyRegistryClient() {
+        StrategyRegistry<StrategyType> registry = new StrategyRegistry<>(StrategyType.class);
+        registry.register(StrategyType.A, new ConcreteStrategyA());
+        registry.register(StrategyType.B, new ConcreteStrategyB());
+
+        // enum 키 또는 int id 로 O(1) 실행
+        registry.doSomething(StrategyType.A);
+        registry.doSomething(StrategyType.B.ordinal());
+
+        // 실행 중 전략 교체 (기존 테이블을 읽고 있는 스레드에는 영향 없음)
+        registry.register(StrategyType.B, new ConcreteStrategyA());
+        assertThat(registry.get(StrategyType.B)).isInstanceOf(ConcreteStrategyA.class);
+
+        assertThatThrownBy(() -> registry.doSomething(StrategyType.values().length))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     /**
      * 클라이언트 - 전략 제공/설정
      */
@@ -81,6 +115,248 @@ public class StrategyTest {
         cart.pay(new NaverCardStrategy("yongseok993@gmail.com", "QE$#GWEFKN!@$%"));
     }
 
+    /**
+     * 원시 타입 배열 기반 장바구니 - 합계를 addItem 시점에 누적하여 결제 시 재계산 없음
+     */
+    @Test
+    public void primitiveCartClient() {
+        PrimitiveShoppingCart cart = new PrimitiveShoppingCart(1);
+        cart.addItem(new Item("맥북 프로", 3500000));
+        cart.addItem(new Item("플레이스테이션", 400000));
+        for (int i = 0; i < 10000; i++) {
+            cart.addItem("플레이스테이션", 400000);
+        }
+
+        assertThat(cart.size()).isEqualTo(10002);
+        assertThat(cart.total()).isEqualTo(3500000L + 400000L * 10001);
+        assertThat(cart.name(10001)).isSameAs(cart.name(1));
+
+        // 결제 금액은 long 이므로 int 범위를 넘는 합계도 그대로 결제
+        cart.pay(new KakaoCardStrategy("Ethan", "0123456789", "999", "12/01"));
+
+        // long 범위를 넘는 합계는 추가 자체가 거부되고 장바구니는 그대로 유지
+        cart.addItem("서버", Long.MAX_VALUE - cart.total());
+        assertThatThrownBy(() -> cart.addItem("서버", 1)).isInstanceOf(ArithmeticException.class);
+        assertThat(cart.size()).isEqualTo(10003);
+
+        PrimitiveShoppingCart small = new PrimitiveShoppingCart();
+        small.addItem("맥북 프로", 3500000);
+        small.pay(new NaverCardStrategy("yongseok993@gmail.com", "QE$#GWEFKN!@$%"));
+    }
+
+    /**
+     * 여러 장바구니를 결제 전략 별로 묶어 가상 스레드에서 비동기 결제
+     */
+    @Test
+    public void paymentEngineClient() throws Exception {
+        PaymentIStrategy kakao = new KakaoCardStrategy("Ethan", "0123456789", "999", "12/01");
+        PaymentIStrategy naver = new NaverCardStrategy("yongseok993@gmail.com", "QE$#GWEFKN!@$%");
+
+        List<PaymentEngine.Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ShoppingCart cart = new ShoppingCart();
+            cart.addItem(new Item("맥북 프로", 3500000));
+            cart.addItem(new Item("플레이스테이션", 400000));
+            payments.add(new PaymentEngine.Payment(cart, i % 2 == 0 ? kakao : naver));
+        }
+
+        // int 범위를 넘는 장바구니도 음수로 넘치거나 실패하지 않고 그대로 결제되어야 한다
+        ShoppingCart overflow = new ShoppingCart();
+        overflow.addItem(new Item("A", Integer.MAX_VALUE));
+        overflow.addItem(new Item("B", 1));
+        payments.add(new PaymentEngine.Payment(overflow, kakao));
+
+        List<CompletableFuture<PaymentEngine.Receipt>> receipts;
+        try (PaymentEngine engine = new PaymentEngine(16)) {
+            receipts = engine.payAll(payments);
+            CompletableFuture.allOf(receipts.subList(0, 200).toArray(CompletableFuture[]::new)).join();
+            assertThat(receipts.get(200).join().amount()).isEqualTo(Integer.MAX_VALUE + 1L);
+
+            engine.metrics().forEach((strategy, snapshot) -> log.info("{} : {}", strategy, snapshot));
+            assertThat(engine.metrics().get("KakaoCardStrategy").count()).isEqualTo(101);
+            assertThat(engine.metrics().get("KakaoCardStrategy").failures()).isZero();
+            assertThat(engine.metrics().get("NaverCardStrategy").count()).isEqualTo(100);
+        }
+
+        assertThat(receipts.get(0).join().amount()).isEqualTo(3900000);
+        assertThat(receipts.get(1).join().payment().method()).isSameAs(naver);
+
+        // 대기열에 쌓인 결제는 한 번에 꺼내 같은 결제 수단으로 일괄 결제
+        CountDownLatch batchEntered = new CountDownLatch(1);
+        CountDownLatch batchGate = new CountDownLatch(1);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        PaymentIStrategy batching = new PaymentIStrategy() {
+            @Override
+            public void pay(long amount) {
+            }
+
+            @Override
+            public void payAll(long[] amounts) {
+                batchSizes.add(amounts.length);
+                batchEntered.countDown();
+                try {
+                    batchGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new Item("맥북 프로", 3500000));
+
+        try (PaymentEngine engine = new PaymentEngine(1, 16, 64)) {
+            engine.pay(new PaymentEngine.Payment(cart, batching));
+            assertThat(batchEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<PaymentEngine.Payment> queued = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                queued.add(new PaymentEngine.Payment(cart, batching));
+            }
+            List<CompletableFuture<PaymentEngine.Receipt>> batched = engine.payAll(queued);
+            batchGate.countDown();
+            CompletableFuture.allOf(batched.toArray(CompletableFuture[]::new)).join();
+        }
+        assertThat(batchSizes).containsExactly(1, 9);
+
+        // 느린 결제 수단의 대기열이 가득 차면 제출하는 스레드가 대기하지만(Back-Pressure) 다른 결제 수단은 막히지 않는다
+        CountDownLatch slowGate = new CountDownLatch(1);
+        AtomicInteger slowPaid = new AtomicInteger();
+        PaymentIStrategy slow = amount -> {
+            slowPaid.incrementAndGet();
+            try {
+                slowGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (PaymentEngine engine = new PaymentEngine(1, 1, 64)) {
+            CompletableFuture<PaymentEngine.Receipt> running = engine.pay(new PaymentEngine.Payment(cart, slow));
+            while (slowPaid.get() == 0) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<PaymentEngine.Receipt> queued = engine.pay(new PaymentEngine.Payment(cart, slow));
+
+            List<CompletableFuture<PaymentEngine.Receipt>> blocked = Collections.synchronizedList(new ArrayList<>());
+            Thread producer = Thread.ofVirtual().start(() -> {
+                try {
+                    blocked.add(engine.pay(new PaymentEngine.Payment(cart, slow)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            assertThat(engine.pay(new PaymentEngine.Payment(cart, naver)).get(5, TimeUnit.SECONDS).amount()).isEqualTo(3500000);
+            assertThat(producer.join(Duration.ofMillis(200))).isFalse();
+            assertThat(running).isNotDone();
+
+            // 대기열에서 기다리는 중에 취소된 결제는 실행되지 않음
+            queued.cancel(false);
+            slowGate.countDown();
+            assertThat(producer.join(Duration.ofSeconds(5))).isTrue();
+            running.join();
+            blocked.get(0).join();
+        }
+        assertThat(slowPaid.get()).isEqualTo(2);
+
+        // 종료된 엔진은 제출을 거부
+        PaymentEngine closed = new PaymentEngine(1);
+        closed.close();
+        assertThatThrownBy(() -> closed.pay(new PaymentEngine.Payment(cart, naver))).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    /**
+     * 지연시간/오류율 통계를 기반으로 가장 빠른 정상 결제 수단을 자동 선택
+     */
+    @Test
+    public void adaptiveSelectorClient() {
+        PaymentIStrategy slow = amount -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        PaymentIStrategy fast = amount -> {};
+        PaymentIStrategy broken = amount -> {
+            throw new IllegalStateException("결제 서버 장애");
+        };
+
+        for (AdaptiveSelector.SelectionPolicy policy : List.of(
+                AdaptiveSelector.SelectionPolicy.ewma(),
+                AdaptiveSelector.SelectionPolicy.powerOfTwoChoices(),
+                AdaptiveSelector.SelectionPolicy.epsilonGreedy(0.1))) {
+
+            // 한 번만 실패해도 비정상으로 보고 제외 (오류율 0.2 초과)
+            AdaptiveSelector<PaymentIStrategy> selector = new AdaptiveSelector<>(List.of(broken, slow, fast), policy, 0.15, Duration.ofMinutes(1));
+            for (int i = 0; i < 200; i++) {
+                // 장애가 난 결제 수단이 선택되어도 다른 수단으로 넘어가 결제는 성공 (테스트의 결제는 멱등)
+                selector.runWithFailover(s -> s.pay(1000));
+            }
+
+            List<AdaptiveSelector.Candidate<PaymentIStrategy>> candidates = selector.candidates();
+            candidates.forEach(c -> log.info(c.toString()));
+            assertThat(candidates.get(2).calls()).isGreaterThan(candidates.get(1).calls());
+            assertThat(candidates.get(0).calls()).isEqualTo(1);
+
+            // 빠르게 실패한 전략은 가장 빠른 전략으로 보이지 않음 (실패는 지연시간 대신 벌점)
+            assertThat(candidates.get(0).ewmaNanos()).isGreaterThan(0);
+            assertThat(candidates.get(0).percentileNanos(99)).isZero();
+        }
+
+        // 장애 후 복구된 전략 : 재시도 대기 시간이 지나면 시험 호출이 정책과 관계없이 그 전략으로 가고, 성공하면 다시 선택된다
+        AtomicBoolean down = new AtomicBoolean(true);
+        PaymentIStrategy primary = amount -> {
+            if (down.get()) {
+                throw new IllegalStateException("결제 서버 장애");
+            }
+        };
+        for (AdaptiveSelector.SelectionPolicy policy : List.of(
+                AdaptiveSelector.SelectionPolicy.ewma(),
+                AdaptiveSelector.SelectionPolicy.powerOfTwoChoices(),
+                AdaptiveSelector.SelectionPolicy.epsilonGreedy(0.1))) {
+
+            down.set(true);
+            AdaptiveSelector<PaymentIStrategy> selector = new AdaptiveSelector<>(List.of(primary, slow), policy, 0.5, Duration.ofMillis(20));
+            AdaptiveSelector.Candidate<PaymentIStrategy> recovering = selector.candidates().get(0);
+            while (recovering.errors() < 4) {
+                selector.runWithFailover(s -> s.pay(1000));
+            }
+            assertThat(recovering.errorRate()).isGreaterThan(0.5);
+
+            down.set(false);
+            long before = recovering.calls();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (recovering.errorRate() > 0.5 && System.nanoTime() < deadline) {
+                selector.run(s -> s.pay(1000));
+            }
+            for (int i = 0; i < 200; i++) {
+                selector.run(s -> s.pay(1000));
+            }
+            log.info("after recovery : {}", recovering);
+            assertThat(recovering.calls() - before).isGreaterThan(150);
+        }
+
+        // 장애가 길어져도 벌점 EWMA 는 상한을 넘지 않음
+        AdaptiveSelector<PaymentIStrategy> outage = new AdaptiveSelector<>(List.of(broken), AdaptiveSelector.SelectionPolicy.ewma());
+        for (int i = 0; i < 2_000; i++) {
+            try {
+                outage.run(s -> s.pay(1000));
+            } catch (IllegalStateException ignored) {
+            }
+        }
+        assertThat(outage.candidates().get(0).ewmaNanos()).isLessThanOrEqualTo(AdaptiveSelector.MAX_PENALISED_NANOS);
+
+        // failover 없이 run() 은 선택한 전략 하나만 실행하고 실패를 그대로 전달
+        AdaptiveSelector<PaymentIStrategy> single = new AdaptiveSelector<>(List.of(broken), AdaptiveSelector.SelectionPolicy.ewma());
+        assertThatThrownBy(() -> single.run(s -> s.pay(1000))).isInstanceOf(IllegalStateException.class);
+        assertThat(single.candidates().get(0).calls()).isEqualTo(1);
+
+        // 전략 인터페이스(IStrategy)도 동일하게 선택 가능
+        new AdaptiveSelector<>(List.<Strategy.IStrategy>of(new ConcreteStrategyA(), new ConcreteStrategyB()),
+                AdaptiveSelector.SelectionPolicy.ewma()).run(Strategy.IStrategy::doSomething);
+    }
+
     /**
      * Java Strategy Pattern 예제
      */
@@ -100,10 +376,50 @@ public class StrategyTest {
         Collections.sort(numbers, new Comparator<Integer>() {
             @Override
             public int compare(Integer o1, Integer o2) {
-                return o1 - o2;
+                // o1 - o2 는 부호가 다른 큰 값끼리 비교하면 오버플로우가 발생하므로 Integer.compare 사용
+                return Integer.compare(o1, o2);
             }
         });
 
         log.info(numbers.toString());
     }
+
+    /**
+     * 원시 타입 배열 정렬 전략 - 박싱 없이 int[] / long[] 정렬, 입력 크기에 따라 전략 선택
+     */
+    @Test
+    public void sortStrategyTest() {
+        Random random = new Random(42);
+        int[] ints = random.ints(100_000).toArray();
+        ints[0] = Integer.MIN_VALUE;
+        ints[1] = Integer.MAX_VALUE;
+        long[] longs = random.longs(100_000).toArray();
+        longs[0] = Long.MIN_VALUE;
+        longs[1] = Long.MAX_VALUE;
+
+        int[] expectedInts = ints.clone();
+        Arrays.sort(expectedInts);
+        long[] expectedLongs = longs.clone();
+        Arrays.sort(expectedLongs);
+
+        for (SortIStrategy strategy : List.of(new DualPivotSortStrategy(), new ParallelSortStrategy(), new RadixSortStrategy())) {
+            int[] sortedInts = ints.clone();
+            strategy.sort(sortedInts);
+            assertThat(sortedInts).isEqualTo(expectedInts);
+
+            long[] sortedLongs = longs.clone();
+            strategy.sort(sortedLongs);
+            assertThat(sortedLongs).isEqualTo(expectedLongs);
+        }
+
+        assertThat(select(100)).isInstanceOf(DualPivotSortStrategy.class);
+        assertThat(select(100_000)).isInstanceOf(RadixSortStrategy.class);
+
+        // 선택된 정렬 전략을 IStrategy 로 컨텍스트에 등록해 실행
+        StrategyContext context = new StrategyContext();
+        int[] numbers = {2, 3, 1, 4, 5};
+        context.setStrategy(new IntSortTask(numbers));
+        context.doSomething();
+        assertThat(numbers).containsExactly(1, 2, 3, 4, 5);
+    }
 }
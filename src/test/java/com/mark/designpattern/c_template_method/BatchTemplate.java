@@ -0,0 +1,102 @@
+package com.mark.designpattern.c_template_method;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * 배치 템플릿 메서드<br>
+ * AbstractTemplate 은 templateMethod() 한 번에 하나의 작업 단위만 처리하므로 대량의 레코드를 처리하면 레코드마다 step1 -&gt; step2 -&gt; step3 가 번갈아 실행되어 단계 별 코드/데이터가 캐시에서 계속 밀려난다.<br>
+ * 배치 템플릿은 입력을 chunk 단위로 나누고, chunk 전체에 step1 을 실행한 뒤 step2, step3 순서로 단계 단위(column-at-a-time)로 실행한다.<br>
+ * parallel 옵션을 켜면 각 단계를 Fork/Join 으로 나누어 병렬 실행한다. (단계 사이의 순서는 그대로 유지)
+ */
+public class BatchTemplate {
+
+    static abstract class AbstractBatchTemplate<T> {
+
+        private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+        // Fork/Join 작업을 더 나누지 않고 직접 처리하는 최소 단위
+        private static final int SEQUENTIAL_THRESHOLD = 256;
+
+        private final int chunkSize;
+        private final ForkJoinPool pool;
+
+        protected AbstractBatchTemplate() {
+            this(DEFAULT_CHUNK_SIZE, null);
+        }
+
+        /**
+         * @param pool null 이면 순차 실행
+         */
+        protected AbstractBatchTemplate(int chunkSize, ForkJoinPool pool) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("chunkSize must be positive : " + chunkSize);
+            }
+            this.chunkSize = chunkSize;
+            this.pool = pool;
+        }
+
+        /**
+         * 템플릿 메서드 : chunk 마다 step1 전체 -&gt; (hook) step2 전체 -&gt; step3 전체
+         */
+        public final void templateMethod(List<T> items) {
+            boolean runStep2 = hook();
+
+            for (int from = 0; from < items.size(); from += chunkSize) {
+                List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+
+                phase(chunk, this::step1);
+                if (runStep2) {
+                    phase(chunk, this::step2);
+                }
+                phase(chunk, this::step3);
+            }
+        }
+
+        boolean hook() {
+            return true;
+        }
+
+        protected abstract void step1(T item);
+        protected abstract void step2(T item);
+        protected abstract void step3(T item);
+
+        private void phase(List<T> chunk, Consumer<T> step) {
+            if (pool == null || chunk.size() <= SEQUENTIAL_THRESHOLD) {
+                for (T item : chunk) {
+                    step.accept(item);
+                }
+            } else {
+                pool.invoke(new PhaseAction<>(chunk, step));
+            }
+        }
+    }
+
+    /**
+     * chunk 를 반씩 나누어 병렬로 단계 실행
+     */
+    private static final class PhaseAction<T> extends RecursiveAction {
+        private final List<T> items;
+        private final Consumer<T> step;
+
+        PhaseAction(List<T> items, Consumer<T> step) {
+            this.items = items;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute() {
+            if (items.size() <= AbstractBatchTemplate.SEQUENTIAL_THRESHOLD) {
+                for (T item : items) {
+                    step.accept(item);
+                }
+                return;
+            }
+
+            int mid = items.size() >>> 1;
+            invokeAll(new PhaseAction<>(items.subList(0, mid), step), new PhaseAction<>(items.subList(mid, items.size()), step));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.mark.designpattern.c_template_method;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static com.mark.designpattern.c_template_method.TemplateMethod.AbstractTemplate;
+
+/**
+ * 템플릿 컴파일러<br>
+ * templateMethod() 는 호출마다 step1 / hook / step2 / step3 를 가상 호출한다. 하나의 호출 지점에서 여러 구현체가 섞이면 (megamorphic) JIT 가 인라이닝하지 못한다.<br>
+ * 컴파일러는 구현체 별로 hook() 을 단 한 번 평가하고, 각 단계를 해당 인스턴스에 바인딩한 MethodHandle 을 하나의 체인으로 합친다.<br>
+ * MethodHandle 을 인스턴스 필드에 두고 invokeExact() 하면 JIT 입장에서 핸들이 상수가 아니므로 체인을 인라이닝하지 못한다.<br>
+ * 그래서 템플릿마다 Invoker 를 원본으로 하는 hidden class 를 정의하고 체인을 클래스 데이터로 넘겨 static final 상수로 고정한다.<br>
+ * hidden class 의 run() 안에서는 핸들, 수신 객체, 구체 클래스가 모두 상수이므로 JIT 가 체인 전체를 인라이닝할 수 있다.<br>
+ * 여러 템플릿을 번갈아 실행하는 호출 지점은 Runnable.run() 한 번만 megamorphic 이고, 단계 호출(step1 / step2 / step3)은 각 hidden class 안에서 단일 형태(monomorphic)가 된다.<br>
+ * <br>
+ * 단, hook() 이 호출 시점마다 다른 값을 반환하는 템플릿에는 사용하면 안 된다. (컴파일 시점의 값으로 고정)
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class TemplateCompiler {
+
+    private static final MethodType STEP = MethodType.methodType(void.class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // hidden class 원본 바이트코드 (템플릿마다 같은 바이트코드로 별개의 클래스를 정의)
+    private static final byte[] INVOKER_BYTES = invokerBytes();
+
+    // 인터페이스(itable) 호출보다 싼 가상(vtable) 호출로 hidden class 를 실행하기 위한 추상 클래스
+    abstract static class Pipeline {
+        abstract void run();
+    }
+
+    /**
+     * hidden class 원본 : 클래스 데이터로 받은 체인을 static final 상수로 읽는다. (이 클래스 자체는 초기화하지 않음)
+     */
+    static final class Invoker extends Pipeline {
+        private static final MethodHandle PIPELINE;
+
+        static {
+            try {
+                PIPELINE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+            } catch (IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        Invoker() {
+        }
+
+        @Override
+        void run() {
+            try {
+                PIPELINE.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    /**
+     * 컴파일된 템플릿 : step1 -&gt; (hook 이 true 면 step2) -&gt; step3 순서의 단일 MethodHandle 을 상수로 가진 hidden class 인스턴스
+     */
+    static final class CompiledTemplate {
+        private final Class<?> type;
+        private final MethodHandle pipeline;
+        private final Pipeline invoker;
+
+        private CompiledTemplate(Class<?> type, MethodHandle pipeline, Pipeline invoker) {
+            this.type = type;
+            this.pipeline = pipeline;
+            this.invoker = invoker;
+        }
+
+        void run() {
+            invoker.run();
+        }
+
+        MethodHandle pipeline() {
+            return pipeline;
+        }
+
+        @Override
+        public String toString() {
+            return "CompiledTemplate(" + type.getSimpleName() + ")";
+        }
+    }
+
+    static CompiledTemplate compile(AbstractTemplate template) {
+        Class<?> type = template.getClass();
+
+        // foldArguments(target, combiner) 는 combiner 를 먼저 실행한 뒤 target 을 실행하므로 step3 부터 역순으로 조립
+        MethodHandle pipeline = step(type, template, "step3");
+        if (template.hook()) {
+            pipeline = MethodHandles.foldArguments(pipeline, step(type, template, "step2"));
+        }
+        pipeline = MethodHandles.foldArguments(pipeline, step(type, template, "step1"));
+
+        return new CompiledTemplate(type, pipeline, define(pipeline));
+    }
+
+    // STRONG 옵션 없이 정의하므로 CompiledTemplate 이 더 이상 참조되지 않으면 hidden class 도 언로드될 수 있음
+    private static Pipeline define(MethodHandle pipeline) {
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(INVOKER_BYTES, pipeline, true);
+            return (Pipeline) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Cannot define hidden class for template pipeline", t);
+        }
+    }
+
+    private static byte[] invokerBytes() {
+        String resource = Invoker.class.getName().substring(Invoker.class.getPackageName().length() + 1) + ".class";
+        try (InputStream in = Invoker.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Cannot find class file : " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MethodHandle step(Class<?> type, AbstractTemplate template, String name) {
+        try {
+            return LOOKUP.findVirtual(type, name, STEP).bindTo(template);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot compile " + type.getSimpleName() + "." + name, e);
+        }
+    }
+}
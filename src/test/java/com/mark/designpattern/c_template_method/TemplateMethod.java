@@ -7,11 +7,20 @@ public class TemplateMethod {
 
     static abstract class AbstractTemplate {
 
+        // 단계 별 시간 측정 (opt-in) : null 이면 측정하지 않음
+        private volatile TemplateMetrics metrics;
+
         /**
          * 템플릿 메서드 : final keyword를 사용해 오버라이딩 불가능<br>
          * 자식 클래스에서 상위 템플릿을 오버라이딩해서 자기 마음대로 바꾸도록 하는 행위를 원천 봉쇄
          */
         public final void templateMethod() {
+            TemplateMetrics metrics = this.metrics;
+            if (metrics != null) {
+                instrumentedTemplateMethod(metrics);
+                return;
+            }
+
             // 상속하여 구현되면 실행될 메서드
             step1();
 
@@ -23,6 +32,34 @@ public class TemplateMethod {
             step3();
         }
 
+        /**
+         * 측정 활성화/비활성화 (null 전달 시 비활성화)
+         */
+        final void instrument(TemplateMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        private void instrumentedTemplateMethod(TemplateMetrics metrics) {
+            long start = System.nanoTime();
+            step1();
+            long end = System.nanoTime();
+            metrics.record(TemplateMetrics.Step.STEP1, end - start);
+
+            if (hook()) {
+                start = end;
+                step2();
+                end = System.nanoTime();
+                metrics.record(TemplateMetrics.Step.STEP2, end - start);
+            } else {
+                metrics.hookSkipped();
+            }
+
+            start = end;
+            step3();
+            metrics.record(TemplateMetrics.Step.STEP3, System.nanoTime() - start);
+            metrics.invoked();
+        }
+
         boolean hook() {
             return true;
         }
@@ -1,8 +1,19 @@
 package com.mark.designpattern.c_template_method;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.mark.designpattern.c_template_method.BatchTemplate.AbstractBatchTemplate;
+import static com.mark.designpattern.c_template_method.TemplateCompiler.CompiledTemplate;
 import static com.mark.designpattern.c_template_method.TemplateMethod.*;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * <b>템플릿 메서드 패턴 (Template Method Pattern)</b><br>
@@ -27,6 +38,7 @@ import static com.mark.designpattern.c_template_method.TemplateMethod.*;
  * 4. 하위 클래스를 통해 기본 단계 구현을 억제하여 리스코프 치환 법칙을 위반할 여지가 있다.
  *
  */
+@Slf4j
 public class TemplateMethodTest {
 
     @Test
@@ -37,4 +49,145 @@ public class TemplateMethodTest {
         AbstractTemplate templateB = new ConcreteB();
         templateB.templateMethod();
     }
+
+    /**
+     * 단계 별 시간 측정 : 등록한 템플릿만 측정하고 Micrometer / 텍스트로 내보냄
+     */
+    @Test
+    public void templateMetricsTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TemplateMetrics metricsA = new TemplateMetrics("ConcreteA").bindTo(registry);
+        TemplateMetrics metricsB = new TemplateMetrics("ConcreteB").bindTo(registry);
+
+        AbstractTemplate templateA = new ConcreteA();
+        AbstractTemplate templateB = new ConcreteB();
+        templateA.instrument(metricsA);
+        templateB.instrument(metricsB);
+
+        for (int i = 0; i < 3; i++) {
+            templateA.templateMethod();
+            templateB.templateMethod();
+        }
+
+        // 측정 비활성화 후 호출은 집계되지 않음
+        templateA.instrument(null);
+        templateA.templateMethod();
+
+        log.info(metricsA.dump());
+        log.info(metricsB.dump());
+
+        assertThat(metricsA.invocations()).isEqualTo(3);
+        assertThat(metricsA.count(TemplateMetrics.Step.STEP2)).isEqualTo(3);
+        assertThat(metricsB.count(TemplateMetrics.Step.STEP2)).isZero();
+        assertThat(metricsB.hookSkips()).isEqualTo(3);
+
+        assertThat(registry.get("template.step").tag("template", "ConcreteA").tag("step", "step1").timer().count()).isEqualTo(3);
+        assertThat(registry.get("template.hook.skip").tag("template", "ConcreteB").counter().count()).isEqualTo(3);
+    }
+
+    /**
+     * hook 을 한 번만 평가하고 단계들을 하나의 MethodHandle 체인으로 합친 컴파일된 템플릿
+     */
+    @Test
+    public void compiledTemplateTest() {
+        TemplateCompiler.compile(new ConcreteA()).run();
+        TemplateCompiler.compile(new ConcreteB()).run();
+
+        List<String> steps = new ArrayList<>();
+        class Recording extends AbstractTemplate {
+            final boolean hook;
+
+            Recording(boolean hook) {
+                this.hook = hook;
+            }
+
+            @Override
+            protected void step1() {
+                steps.add("step1");
+            }
+
+            @Override
+            protected void step2() {
+                steps.add("step2");
+            }
+
+            @Override
+            protected void step3() {
+                steps.add("step3");
+            }
+
+            @Override
+            boolean hook() {
+                return hook;
+            }
+        }
+
+        CompiledTemplate withHook = TemplateCompiler.compile(new Recording(true));
+        withHook.run();
+        assertThat(steps).containsExactly("step1", "step2", "step3");
+
+        steps.clear();
+        TemplateCompiler.compile(new Recording(false)).run();
+        assertThat(steps).containsExactly("step1", "step3");
+    }
+
+    /**
+     * chunk 단위로 단계별(column-at-a-time) 실행하는 배치 템플릿 (순차 / Fork-Join 병렬)
+     */
+    @Test
+    public void batchTemplateTest() {
+        class Row {
+            int value;
+            int phase;
+        }
+
+        class Doubling extends AbstractBatchTemplate<Row> {
+            final AtomicInteger orderViolations = new AtomicInteger();
+
+            Doubling(ForkJoinPool pool) {
+                super(1000, pool);
+            }
+
+            @Override
+            protected void step1(Row row) {
+                row.value *= 2;
+                row.phase = 1;
+            }
+
+            @Override
+            protected void step2(Row row) {
+                row.value += 1;
+                check(row, 1);
+                row.phase = 2;
+            }
+
+            @Override
+            protected void step3(Row row) {
+                row.value *= 10;
+                check(row, 2);
+                row.phase = 3;
+            }
+
+            private void check(Row row, int expectedPhase) {
+                if (row.phase != expectedPhase) {
+                    orderViolations.incrementAndGet();
+                }
+            }
+        }
+
+        for (ForkJoinPool pool : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+            List<Row> rows = IntStream.range(0, 10_000).mapToObj(i -> {
+                Row row = new Row();
+                row.value = i;
+                return row;
+            }).toList();
+
+            Doubling template = new Doubling(pool);
+            template.templateMethod(rows);
+
+            assertThat(template.orderViolations.get()).isZero();
+            assertThat(rows.get(123).value).isEqualTo((123 * 2 + 1) * 10);
+            assertThat(rows).allMatch(row -> row.phase == 3);
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.mark.designpattern.c_template_method;
+
+import com.mark.designpattern.common.Log2Histogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 템플릿 단계 별 시간 측정 지표<br>
+ * AbstractTemplate.instrument(metrics) 로 등록한 템플릿만 측정하며, 등록하지 않은 템플릿은 null 검사 한 번 외에 추가 비용(할당)이 없다.<br>
+ * 단계(step1, step2, step3) 별 나노초 히스토그램, hook 으로 step2 를 건너뛴 횟수, 초당 처리량을 집계하고<br>
+ * Micrometer MeterRegistry 로 내보내거나(bindTo) 텍스트로 출력(dump)할 수 있다.
+ */
+class TemplateMetrics {
+
+    enum Step { STEP1, STEP2, STEP3 }
+
+    private final String name;
+    private final long createdAt = System.nanoTime();
+    private final Log2Histogram[] steps = {new Log2Histogram(), new Log2Histogram(), new Log2Histogram()};
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder hookSkips = new LongAdder();
+
+    // bindTo() 전에는 null : Micrometer 로 내보내지 않음
+    private volatile Timer[] timers;
+    private volatile Counter hookSkipCounter;
+
+    TemplateMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(Step step, long nanos) {
+        steps[step.ordinal()].record(nanos);
+
+        Timer[] t = timers;
+        if (t != null) {
+            t[step.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void hookSkipped() {
+        hookSkips.increment();
+
+        Counter c = hookSkipCounter;
+        if (c != null) {
+            c.increment();
+        }
+    }
+
+    void invoked() {
+        invocations.increment();
+    }
+
+    long invocations() {
+        return invocations.sum();
+    }
+
+    long hookSkips() {
+        return hookSkips.sum();
+    }
+
+    long count(Step step) {
+        return steps[step.ordinal()].count();
+    }
+
+    /**
+     * Micrometer 레지스트리에 template.step (Timer, 백분위 포함) / template.hook.skip (Counter) 등록
+     */
+    TemplateMetrics bindTo(MeterRegistry registry) {
+        Timer[] t = new Timer[Step.values().length];
+        for (Step step : Step.values()) {
+            t[step.ordinal()] = Timer.builder("template.step")
+                    .tag("template", name)
+                    .tag("step", step.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+        hookSkipCounter = Counter.builder("template.hook.skip").tag("template", name).register(registry);
+        timers = t;
+        return this;
+    }
+
+    String dump() {
+        long n = invocations.sum();
+        double seconds = (System.nanoTime() - createdAt) / 1_000_000_000.0;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Template metrics : %s (invocations: %d, hookSkips: %d, throughput: %.1f/s)%n",
+                name, n, hookSkips.sum(), seconds == 0 ? 0 : n / seconds));
+        for (Step step : Step.values()) {
+            Log2Histogram stats = steps[step.ordinal()];
+            sb.append(String.format("  %-5s count: %d, avg: %dns, p50: %dns, p99: %dns, max: %dns%n",
+                    step.name().toLowerCase(Locale.ROOT), stats.count(), stats.averageNanos(),
+                    stats.percentile(50), stats.percentile(99), stats.maxNanos()));
+        }
+        return sb.toString();
+    }
+}
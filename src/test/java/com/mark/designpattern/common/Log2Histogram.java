@@ -0,0 +1,68 @@
+package com.mark.designpattern.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HdrHistogram 방식을 단순화한 2의 거듭제곱 버킷 지연시간 히스토그램<br>
+ * 버킷 i 는 [2^i, 2^(i+1)) ns 구간이며 백분위는 해당 버킷의 상한값으로 근사한다.<br>
+ * 여러 스레드에서 락 없이 기록할 수 있으며 횟수/합계/최댓값도 함께 집계한다.<br>
+ * 패턴 패키지마다 같은 히스토그램을 복사하지 않도록 공용 패키지에 두었다. (TemplateMetrics, AdaptiveSelector, RenderPipeline)
+ */
+public final class Log2Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(nanos, 1)));
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 평균 (기록이 없으면 0)
+     */
+    public long averageNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * 백분위 (해당 버킷의 상한, ns) : 기록이 없으면 0
+     */
+    public long percentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mark.designpattern.d_state;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.mark.designpattern.d_state.State.*;
+import static com.mark.designpattern.d_state.StateTable.TransitionTable;
+
+/**
+ * Lock-Free 노트북 컨텍스트<br>
+ * LaptopContext.changeState 는 일반 필드에 쓰기 때문에 powerButtonPush() 와 setSavingState() 가 동시에 호출되면 전이가 유실된다.<br>
+ * 현재 상태와 이벤트로 다음 상태를 계산한 뒤 AtomicReference 의 CAS 로 적용하고, 그 사이 다른 스레드가 상태를 바꿨다면 다시 계산한다.<br>
+ * 허용되지 않은 전이(예: OffState 에서 typeButtonPush)는 예외를 던지지 않고 정책에 따라 즉시 거절하거나 정해진 횟수만큼 다시 시도한다.<br>
+ * 전이 규칙은 StateTable.laptop() 테이블 하나에서 가져오고, 테이블의 상태 번호를 State 의 상태 객체(OffState, OnState, SavingState)로 바꾸어 사용한다.<br>
+ * 적용된 키 입력은 현재 상태 객체의 typeButtonPush() 를 실행한다. (상태 객체의 powerButtonPush(LaptopContext) 는 LaptopContext 의 필드를 바꾸므로 CAS 컨텍스트에서는 실행하지 않음)
+ */
+class ConcurrentLaptopContext {
+
+    enum Event {
+        POWER_BUTTON(StateTable.POWER_BUTTON),
+        TYPE_BUTTON(StateTable.TYPE_BUTTON),
+        SAVING_MODE(StateTable.SAVING_MODE);
+
+        // StateTable 의 이벤트 번호
+        private final int id;
+
+        Event(int id) {
+            this.id = id;
+        }
+    }
+
+    enum Result { APPLIED, REJECTED }
+
+    /**
+     * 허용되지 않은 전이 처리 정책
+     * REJECT : 즉시 거절
+     * RETRY : 다른 스레드가 상태를 바꿔 전이가 가능해질 수 있으므로 maxRetries 만큼 다시 확인 후 거절
+     */
+    enum IllegalTransitionPolicy { REJECT, RETRY }
+
+    private static final TransitionTable RULES = StateTable.laptop();
+
+    // StateTable 의 상태 번호(OFF, ON, SAVING) 순서의 상태 객체
+    private static final PowerState[] STATES = {OffState.getInstance(), OnState.getInstance(), SavingState.getInstance()};
+
+    private final AtomicReference<PowerState> state = new AtomicReference<>(OffState.getInstance());
+    private final IllegalTransitionPolicy policy;
+    private final int maxRetries;
+
+    private final LongAdder keyInputs = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    ConcurrentLaptopContext() {
+        this(IllegalTransitionPolicy.REJECT, 0);
+    }
+
+    ConcurrentLaptopContext(IllegalTransitionPolicy policy, int maxRetries) {
+        this.policy = policy;
+        this.maxRetries = maxRetries;
+    }
+
+    Result powerButtonPush() {
+        return result(fire(Event.POWER_BUTTON));
+    }
+
+    Result typeButtonPush() {
+        PowerState validated = fire(Event.TYPE_BUTTON);
+        if (validated != null) {
+            // 키 입력을 허용한 상태 객체의 동작 실행 : state 를 다시 읽으면 그 사이 전원이 꺼져 OffState 가 예외를 던질 수 있음
+            validated.typeButtonPush();
+            keyInputs.increment();
+        }
+        return result(validated);
+    }
+
+    Result setSavingState() {
+        return result(fire(Event.SAVING_MODE));
+    }
+
+    PowerState state() {
+        return state.get();
+    }
+
+    long keyInputs() {
+        return keyInputs.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private static Result result(PowerState validated) {
+        return validated != null ? Result.APPLIED : Result.REJECTED;
+    }
+
+    /**
+     * @return 전이를 검증하고 적용한 시점의 현재 상태 (거절되면 null)
+     */
+    private PowerState fire(Event event) {
+        int retries = policy == IllegalTransitionPolicy.RETRY ? maxRetries : 0;
+
+        while (true) {
+            PowerState current = state.get();
+            PowerState next = next(current, event);
+
+            if (next == null) {
+                if (retries-- > 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                rejected.increment();
+                return null;
+            }
+
+            // 자기 자신으로의 전이는 쓰기 없이 성공 (불필요한 캐시 라인 무효화 방지)
+            if (next == current || state.compareAndSet(current, next)) {
+                return current;
+            }
+            // CAS 실패 : 다른 스레드가 먼저 상태를 바꿈 -> 바뀐 상태 기준으로 다시 계산
+        }
+    }
+
+    /**
+     * 전이 규칙 (StateTable.laptop()) : 허용되지 않으면 null
+     */
+    static PowerState next(PowerState current, Event event) {
+        int to = RULES.next(indexOf(current), event.id);
+        return to == StateTable.ILLEGAL ? null : STATES[to];
+    }
+
+    private static int indexOf(PowerState state) {
+        for (int i = 0; i < STATES.length; i++) {
+            if (STATES[i] == state) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown state : " + state);
+    }
+}
@@ -0,0 +1,219 @@
+package com.mark.designpattern.d_state;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import static com.mark.designpattern.d_state.ConcurrentLaptopContext.Event;
+import static com.mark.designpattern.d_state.State.LaptopContext;
+
+/**
+ * 메일박스 기반 상태 머신 런타임 (Actor 방식)<br>
+ * 머신마다 스레드나 락을 두지 않고, 머신마다 크기가 제한된 MPSC(다중 생산자 - 단일 소비자) 메일박스를 두어 이벤트를 쌓는다.<br>
+ * 메일박스에 이벤트가 들어오면 머신을 실행기(Executor)에 한 번만 예약하고, 실행되면 최대 batchSize 개의 이벤트를 한꺼번에 처리한다.<br>
+ * 한 머신은 동시에 하나의 작업에서만 실행되므로 머신 별 이벤트 순서가 보장되고 컨텍스트(LaptopContext)는 동기화가 필요 없다.<br>
+ * 수백만 개의 머신을 소수의 캐리어 스레드(ForkJoinPool) 또는 가상 스레드 위에서 다중화한다.<br>
+ * 처리 중 예외는 failed 로 세고 실패 콜백(기본값 : 경고 로그)에 전달한다. close() 이후 전달한 이벤트는 처리 대기에 포함되지 않고 거절된다.
+ */
+@Slf4j
+class MailboxRuntime<C, E> implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int mailboxCapacity;
+    private final int batchSize;
+    private final BiConsumer<? super C, ? super E> handler;
+    private final BiConsumer<? super E, ? super RuntimeException> onFailure;
+
+    private final LongAdder pending = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean closed;
+
+    MailboxRuntime(ExecutorService executor, int mailboxCapacity, int batchSize, BiConsumer<? super C, ? super E> handler) {
+        this(executor, mailboxCapacity, batchSize, handler,
+                (event, e) -> log.warn("Mailbox handler failed for event {} : {}", event, e.toString()));
+    }
+
+    /**
+     * @param onFailure 처리 중 예외가 발생한 이벤트와 예외를 받는 콜백 (머신의 실행 스레드에서 호출)
+     */
+    MailboxRuntime(ExecutorService executor, int mailboxCapacity, int batchSize, BiConsumer<? super C, ? super E> handler,
+                   BiConsumer<? super E, ? super RuntimeException> onFailure) {
+        if (mailboxCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("mailboxCapacity and batchSize must be positive");
+        }
+        this.executor = executor;
+        this.mailboxCapacity = mailboxCapacity;
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * 노트북 런타임 : CPU 코어 수만큼의 캐리어 스레드(FIFO 모드 ForkJoinPool)에서 LaptopContext 이벤트 처리
+     */
+    static MailboxRuntime<LaptopContext, Event> laptop(int mailboxCapacity, int batchSize) {
+        ExecutorService carriers = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        return new MailboxRuntime<>(carriers, mailboxCapacity, batchSize, MailboxRuntime::dispatch);
+    }
+
+    static void dispatch(LaptopContext context, Event event) {
+        switch (event) {
+            case POWER_BUTTON -> context.powerButtonPush();
+            case TYPE_BUTTON -> context.typeButtonPush();
+            case SAVING_MODE -> context.setSavingState();
+        }
+    }
+
+    Machine spawn(C context) {
+        return new Machine(context);
+    }
+
+    long processed() {
+        return processed.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * 전달된 모든 이벤트가 처리될 때까지 대기
+     */
+    boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.sum() != 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    final class Machine implements Runnable {
+        private final C context;
+        private final Queue<E> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Machine(C context) {
+            this.context = context;
+        }
+
+        /**
+         * 이벤트 전달 : 메일박스가 가득 차거나 런타임이 종료되었으면 false (Back-Pressure, 호출자가 재시도 여부 결정)
+         */
+        boolean tell(E event) {
+            // 종료 후에는 처리 대기(pending)에 더하지 않음 : 실행될 수 없는 이벤트 때문에 awaitIdle 이 끝나지 않는 것을 방지
+            if (closed) {
+                rejected.increment();
+                return false;
+            }
+            if (size.incrementAndGet() > mailboxCapacity) {
+                size.decrementAndGet();
+                rejected.increment();
+                return false;
+            }
+
+            pending.increment();
+            mailbox.offer(event);
+            return schedule();
+        }
+
+        C context() {
+            return context;
+        }
+
+        /**
+         * @return 실행기가 예약을 거절했으면 false
+         */
+        private boolean schedule() {
+            // 이미 예약되어 있으면 실행 중인 작업이 새 이벤트까지 처리
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // close() 검사와 종료가 겹친 경우 : 실행될 수 없는 이벤트를 비우고 처리 대기 계산을 되돌림
+                    discard();
+                    scheduled.set(false);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void discard() {
+            while (mailbox.poll() != null) {
+                size.decrementAndGet();
+                pending.decrement();
+                rejected.increment();
+            }
+        }
+
+        /**
+         * 최대 batchSize 개 처리 후 실행기를 양보하여 다른 머신이 굶지 않도록 함
+         */
+        @Override
+        public void run() {
+            int handled = 0;
+            E event;
+            while (handled < batchSize && (event = mailbox.poll()) != null) {
+                size.decrementAndGet();
+                try {
+                    handler.accept(context, event);
+                    processed.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    reportFailure(event, e);
+                } finally {
+                    pending.decrement();
+                }
+                handled++;
+            }
+
+            scheduled.set(false);
+
+            // 예약 해제와 새 이벤트 도착이 겹친 경우 다시 예약
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void reportFailure(E event, RuntimeException e) {
+            try {
+                onFailure.accept(event, e);
+            } catch (RuntimeException callbackFailure) {
+                // 콜백의 예외로 머신이 멈추지 않도록 무시
+                log.warn("Mailbox failure callback failed : {}", callbackFailure.toString());
+            }
+        }
+    }
+}
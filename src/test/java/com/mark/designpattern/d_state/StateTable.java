@@ -0,0 +1,185 @@
+package com.mark.designpattern.d_state;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * 테이블 기반 상태 머신 (Table-Driven FSM)<br>
+ * State 예제는 상태마다 싱글톤 객체를 두고 전이마다 가상 호출 + 로그 출력을 한다. 수십만 개의 상태 머신을 돌리면 호출/로그 비용과 머신 당 객체(LaptopContext) 비용이 커진다.<br>
+ * 상태와 이벤트를 int 로 표현하고 [상태 * 이벤트 수 + 이벤트] 위치에 다음 상태를 담은 1차원 전이 배열 하나로 모든 머신이 전이 규칙을 공유한다.<br>
+ * 머신의 상태는 byte 배열의 한 칸(1 byte)이며, 허용되지 않은 전이는 예외 대신 false 를 반환한다.<br>
+ * 상태 진입/이탈 동작(entry/exit action)은 필요한 상태에만 등록한다. (자기 자신으로의 전이는 진입/이탈 동작을 실행하지 않음)
+ */
+public class StateTable {
+
+    // 상태
+    static final int OFF = 0;
+    static final int ON = 1;
+    static final int SAVING = 2;
+    static final int STATE_COUNT = 3;
+
+    // 이벤트
+    static final int POWER_BUTTON = 0;
+    static final int TYPE_BUTTON = 1;
+    static final int SAVING_MODE = 2;
+    static final int EVENT_COUNT = 3;
+
+    static final int ILLEGAL = -1;
+
+    /**
+     * 노트북 전이 테이블 (State.LaptopContext 와 동일한 규칙)
+     */
+    static TransitionTable laptop() {
+        return new TransitionTable.Builder(STATE_COUNT, EVENT_COUNT)
+                .transition(OFF, POWER_BUTTON, ON)
+                .transition(ON, POWER_BUTTON, OFF)
+                .transition(SAVING, POWER_BUTTON, ON)
+                .transition(ON, TYPE_BUTTON, ON)
+                .transition(OFF, SAVING_MODE, SAVING)
+                .transition(ON, SAVING_MODE, SAVING)
+                .transition(SAVING, SAVING_MODE, SAVING)
+                .build();
+    }
+
+    /**
+     * 불변 전이 테이블 : 모든 머신이 하나의 인스턴스를 공유
+     */
+    static final class TransitionTable {
+        private final int eventCount;
+        private final byte[] next;
+        private final IntConsumer[] onEntry;
+        private final IntConsumer[] onExit;
+
+        private TransitionTable(Builder builder) {
+            this.eventCount = builder.eventCount;
+            this.next = builder.next.clone();
+            this.onEntry = builder.onEntry.clone();
+            this.onExit = builder.onExit.clone();
+        }
+
+        int next(int state, int event) {
+            return next[state * eventCount + event];
+        }
+
+        static final class Builder {
+            private final int eventCount;
+            private final byte[] next;
+            private final IntConsumer[] onEntry;
+            private final IntConsumer[] onExit;
+
+            Builder(int stateCount, int eventCount) {
+                if (stateCount <= 0 || stateCount > Byte.MAX_VALUE) {
+                    throw new IllegalArgumentException("stateCount must be in 1.." + Byte.MAX_VALUE + " : " + stateCount);
+                }
+                this.eventCount = eventCount;
+                this.next = new byte[stateCount * eventCount];
+                this.onEntry = new IntConsumer[stateCount];
+                this.onExit = new IntConsumer[stateCount];
+                Arrays.fill(next, (byte) ILLEGAL);
+            }
+
+            Builder transition(int from, int event, int to) {
+                next[from * eventCount + event] = (byte) to;
+                return this;
+            }
+
+            // 진입 동작 : 인자로 머신 번호를 전달
+            Builder onEntry(int state, IntConsumer action) {
+                onEntry[state] = action;
+                return this;
+            }
+
+            // 이탈 동작 : 인자로 머신 번호를 전달
+            Builder onExit(int state, IntConsumer action) {
+                onExit[state] = action;
+                return this;
+            }
+
+            TransitionTable build() {
+                return new TransitionTable(this);
+            }
+        }
+    }
+
+    /**
+     * 상태 머신 집합 : 머신 당 1 byte (LaptopContext 객체 하나는 헤더 + 참조 필드로 약 16 byte + 배열/리스트의 참조 4~8 byte)
+     */
+    static final class MachineFleet {
+        // 전이 테이블의 배열을 필드로 직접 들고 있어 전이마다 테이블 객체를 거치지 않음
+        private final int eventCount;
+        private final byte[] next;
+        private final IntConsumer[] onEntry;
+        private final IntConsumer[] onExit;
+        private final boolean hasActions;
+        private final byte[] states;
+
+        MachineFleet(TransitionTable table, int size, int initialState) {
+            this(table, filled(size, initialState));
+        }
+
+        /**
+         * 저장된 상태 배열로 복원 (배열을 복사하지 않고 그대로 사용)
+         */
+        MachineFleet(TransitionTable table, byte[] states) {
+            this.eventCount = table.eventCount;
+            this.next = table.next;
+            this.onEntry = table.onEntry;
+            this.onExit = table.onExit;
+            this.hasActions = Arrays.stream(onEntry).anyMatch(Objects::nonNull) || Arrays.stream(onExit).anyMatch(Objects::nonNull);
+            this.states = states;
+        }
+
+        private static byte[] filled(int size, int initialState) {
+            byte[] states = new byte[size];
+            Arrays.fill(states, (byte) initialState);
+            return states;
+        }
+
+        /**
+         * @return 전이가 허용되지 않으면 상태를 바꾸지 않고 false
+         */
+        boolean fire(int machine, int event) {
+            int from = states[machine];
+            int to = next[from * eventCount + event];
+            if (to == ILLEGAL) {
+                return false;
+            }
+
+            if (!hasActions) {
+                states[machine] = (byte) to;
+                return true;
+            }
+
+            if (to != from) {
+                IntConsumer exit = onExit[from];
+                if (exit != null) {
+                    exit.accept(machine);
+                }
+
+                states[machine] = (byte) to;
+
+                IntConsumer entry = onEntry[to];
+                if (entry != null) {
+                    entry.accept(machine);
+                }
+            }
+            return true;
+        }
+
+        int state(int machine) {
+            return states[machine];
+        }
+
+        int size() {
+            return states.length;
+        }
+
+        /**
+         * 스냅샷 저장용 : 상태 배열 직접 참조 (호출자는 변경하지 않음)
+         */
+        byte[] states() {
+            return states;
+        }
+    }
+}
@@ -1,8 +1,29 @@
 package com.mark.designpattern.d_state;
 
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static com.mark.designpattern.d_state.ConcurrentLaptopContext.Event;
+import static com.mark.designpattern.d_state.ConcurrentLaptopContext.IllegalTransitionPolicy;
+import static com.mark.designpattern.d_state.ConcurrentLaptopContext.Result;
 import static com.mark.designpattern.d_state.State.*;
+import static com.mark.designpattern.d_state.StateTable.*;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * <b>상태 패턴 (State Pattern)</b><br>
@@ -27,6 +48,7 @@ import static com.mark.designpattern.d_state.State.*;
  * 2. 상태 클래스 갯수가 많고 상태 규칙이 자주 변경된다면 컨텍스트의 상태 변경 코드가 복잡해지게 될 수 있다.<br>
  * 3. 객체에 적용할 상태가 몇 가지 밖에 없거나 거의 상태 변경이 이루어지지 않는 경우 패턴을 적용하는 것이 과도할 수 있다.<br>
  */
+@Slf4j
 public class StateTest {
 
     @Test
@@ -51,4 +73,254 @@ public class StateTest {
         laptop.powerButtonPush();
         laptop.currentStatePrint();
     }
+
+    /**
+     * 테이블 기반 상태 머신 : 상태/이벤트를 int 로, 머신 상태를 byte 배열 한 칸으로 표현
+     */
+    @Test
+    public void stateTableTest() {
+        List<String> actions = new ArrayList<>();
+        TransitionTable table = new TransitionTable.Builder(STATE_COUNT, EVENT_COUNT)
+                .transition(OFF, POWER_BUTTON, ON)
+                .transition(ON, POWER_BUTTON, OFF)
+                .transition(SAVING, POWER_BUTTON, ON)
+                .transition(ON, TYPE_BUTTON, ON)
+                .transition(ON, SAVING_MODE, SAVING)
+                .onEntry(ON, machine -> actions.add(machine + " 노트북 전원 ON"))
+                .onExit(ON, machine -> actions.add(machine + " 노트북 전원 ON 해제"))
+                .build();
+
+        MachineFleet fleet = new MachineFleet(table, 2, OFF);
+
+        // OffState 에서 키 입력은 예외 없이 거부
+        assertThat(fleet.fire(0, TYPE_BUTTON)).isFalse();
+        assertThat(fleet.state(0)).isEqualTo(OFF);
+
+        // OffState -> OnState -> (키 입력) -> SavingState -> OnState -> OffState
+        assertThat(fleet.fire(0, POWER_BUTTON)).isTrue();
+        assertThat(fleet.fire(0, TYPE_BUTTON)).isTrue();
+        assertThat(fleet.fire(0, SAVING_MODE)).isTrue();
+        assertThat(fleet.state(0)).isEqualTo(SAVING);
+        assertThat(fleet.fire(0, POWER_BUTTON)).isTrue();
+        assertThat(fleet.fire(0, POWER_BUTTON)).isTrue();
+        assertThat(fleet.state(0)).isEqualTo(OFF);
+
+        // 다른 머신은 영향 없음
+        assertThat(fleet.state(1)).isEqualTo(OFF);
+
+        actions.forEach(log::info);
+        assertThat(actions).containsExactly(
+                "0 노트북 전원 ON", "0 노트북 전원 ON 해제",
+                "0 노트북 전원 ON", "0 노트북 전원 ON 해제");
+
+        // 기본 노트북 테이블은 LaptopContext 와 동일한 규칙
+        assertThat(laptop().next(OFF, SAVING_MODE)).isEqualTo(SAVING);
+        assertThat(laptop().next(SAVING, TYPE_BUTTON)).isEqualTo(ILLEGAL);
+    }
+
+    /**
+     * CAS 기반 컨텍스트 : 동시에 전원 버튼을 눌러도 전이가 유실되지 않고, 허용되지 않은 전이는 예외 없이 거절
+     */
+    @Test
+    public void concurrentLaptopContextTest() throws Exception {
+        ConcurrentLaptopContext laptop = new ConcurrentLaptopContext();
+
+        // OffState 에서 키 입력 : 예외 대신 REJECTED
+        assertThat(laptop.typeButtonPush()).isEqualTo(Result.REJECTED);
+        assertThat(laptop.rejected()).isEqualTo(1);
+
+        // 8개 스레드 x 10,001번 전원 버튼 : 모든 전이가 유실 없이 적용되면 짝수(80,008)번 토글이므로 최종 상태는 OFF
+        int threads = 8;
+        int pushes = 10_001;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < pushes; i++) {
+                        laptop.powerButtonPush();
+                    }
+                });
+            }
+        }
+        assertThat(laptop.state()).isSameAs(OffState.getInstance());
+
+        laptop.powerButtonPush();
+        assertThat(laptop.state()).isSameAs(OnState.getInstance());
+        assertThat(laptop.typeButtonPush()).isEqualTo(Result.APPLIED);
+        assertThat(laptop.setSavingState()).isEqualTo(Result.APPLIED);
+        assertThat(laptop.state()).isSameAs(SavingState.getInstance());
+
+        // 키 입력과 전원 토글이 경합해도 검증한 상태 객체로 키 입력을 실행하므로 OffState 의 예외가 발생하지 않음
+        ConcurrentLaptopContext racing = new ConcurrentLaptopContext();
+        int typing = 50_000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> toggler = executor.submit(() -> {
+                for (int i = 0; i < typing; i++) {
+                    racing.powerButtonPush();
+                }
+            });
+            Future<?> typist = executor.submit(() -> {
+                for (int i = 0; i < typing; i++) {
+                    racing.typeButtonPush();
+                }
+            });
+            toggler.get();
+            typist.get();
+        }
+        assertThat(racing.keyInputs() + racing.rejected()).isEqualTo(typing);
+
+        // RETRY 정책 : 재시도 후에도 허용되지 않으면 거절
+        ConcurrentLaptopContext retrying = new ConcurrentLaptopContext(IllegalTransitionPolicy.RETRY, 3);
+        assertThat(retrying.typeButtonPush()).isEqualTo(Result.REJECTED);
+        assertThat(retrying.keyInputs()).isZero();
+
+        // 전이 규칙(StateTable.laptop())은 State 의 상태 객체 동작과 일치 (상태 객체가 예외를 던지는 전이는 허용되지 않음)
+        for (PowerState from : List.of(OffState.getInstance(), OnState.getInstance(), SavingState.getInstance())) {
+            for (Event event : Event.values()) {
+                LaptopContext context = new LaptopContext();
+                context.changeState(from);
+                PowerState expected;
+                try {
+                    MailboxRuntime.dispatch(context, event);
+                    expected = context.powerState;
+                } catch (IllegalStateException e) {
+                    expected = null;
+                }
+                assertThat(ConcurrentLaptopContext.next(from, event)).as("%s + %s", from, event).isSameAs(expected);
+            }
+        }
+    }
+
+    /**
+     * 메일박스 런타임 : 머신 별 이벤트 순서를 보장하면서 소수의 스레드로 많은 머신을 처리
+     */
+    @Test
+    public void mailboxRuntimeTest() throws InterruptedException {
+        // 노트북 머신 : OffState -> (키 입력 거절) -> OnState -> SavingState -> OnState
+        List<MailboxRuntime<LaptopContext, Event>.Machine> laptops = new ArrayList<>();
+        try (MailboxRuntime<LaptopContext, Event> runtime = MailboxRuntime.laptop(16, 8)) {
+            for (int i = 0; i < 3; i++) {
+                MailboxRuntime<LaptopContext, Event>.Machine laptop = runtime.spawn(new LaptopContext());
+                laptop.tell(Event.TYPE_BUTTON);
+                laptop.tell(Event.POWER_BUTTON);
+                laptop.tell(Event.SAVING_MODE);
+                laptop.tell(Event.POWER_BUTTON);
+                laptops.add(laptop);
+            }
+
+            assertThat(runtime.awaitIdle(Duration.ofSeconds(5))).isTrue();
+            assertThat(runtime.failed()).isEqualTo(3);
+        }
+        // close() 가 실행기 종료를 기다리므로 이후에는 컨텍스트를 안전하게 읽을 수 있음
+        assertThat(laptops).allMatch(laptop -> laptop.context().powerState == OnState.getInstance());
+
+        // 실패 콜백 : 처리 중 예외가 발생한 이벤트 전달 / close() 이후 이벤트는 거절되고 awaitIdle 이 멈추지 않음
+        List<Event> failures = new CopyOnWriteArrayList<>();
+        MailboxRuntime<LaptopContext, Event> closing = new MailboxRuntime<>(Executors.newVirtualThreadPerTaskExecutor(), 16, 8,
+                MailboxRuntime::dispatch, (event, e) -> failures.add(event));
+        MailboxRuntime<LaptopContext, Event>.Machine closingLaptop = closing.spawn(new LaptopContext());
+        assertThat(closingLaptop.tell(Event.TYPE_BUTTON)).isTrue();
+        assertThat(closing.awaitIdle(Duration.ofSeconds(5))).isTrue();
+        closing.close();
+        assertThat(failures).containsExactly(Event.TYPE_BUTTON);
+        assertThat(closingLaptop.tell(Event.POWER_BUTTON)).isFalse();
+        assertThat(closing.rejected()).isEqualTo(1);
+        assertThat(closing.awaitIdle(Duration.ofSeconds(1))).isTrue();
+
+        // close() 를 거치지 않고 실행기가 종료된 경우에도 거절된 이벤트의 처리 대기 계산을 되돌림
+        ExecutorService shutdown = Executors.newVirtualThreadPerTaskExecutor();
+        shutdown.shutdown();
+        try (MailboxRuntime<LaptopContext, Event> orphan = new MailboxRuntime<>(shutdown, 16, 8, MailboxRuntime::dispatch)) {
+            assertThat(orphan.spawn(new LaptopContext()).tell(Event.POWER_BUTTON)).isFalse();
+            assertThat(orphan.rejected()).isEqualTo(1);
+            assertThat(orphan.awaitIdle(Duration.ofSeconds(1))).isTrue();
+        }
+
+        // 가상 스레드 위에서 10,000개 머신 x 50개 이벤트 : 머신 별로 보낸 순서대로 처리되어야 함
+        int machines = 10_000;
+        int events = 50;
+        List<MailboxRuntime<List<Integer>, Integer>.Machine> fleet = new ArrayList<>(machines);
+        try (MailboxRuntime<List<Integer>, Integer> runtime = new MailboxRuntime<>(
+                Executors.newVirtualThreadPerTaskExecutor(), 64, 16, List::add)) {
+            for (int i = 0; i < machines; i++) {
+                fleet.add(runtime.spawn(new ArrayList<>()));
+            }
+
+            try (ExecutorService producers = Executors.newFixedThreadPool(4)) {
+                for (int p = 0; p < 4; p++) {
+                    int producer = p;
+                    producers.execute(() -> {
+                        for (int e = 0; e < events; e++) {
+                            for (int m = producer; m < machines; m += 4) {
+                                fleet.get(m).tell(e);
+                            }
+                        }
+                    });
+                }
+            }
+
+            assertThat(runtime.awaitIdle(Duration.ofSeconds(30))).isTrue();
+            assertThat(runtime.processed()).isEqualTo((long) machines * events);
+            assertThat(runtime.rejected()).isZero();
+        }
+        assertThat(fleet).allMatch(machine -> machine.context().size() == events && isSorted(machine.context()));
+    }
+
+    /**
+     * 전이 저널 : 허용된 전이를 메모리 맵 파일에 기록하고, 재시작 후 스냅샷 + 이후 레코드로 상태 복원
+     */
+    @Test
+    public void transitionJournalTest(@TempDir Path directory) throws IOException {
+        int machines = 200_000;
+        MachineFleet fleet = new MachineFleet(laptop(), machines, OFF);
+        Random random = new Random(42);
+
+        // 작은 초기 용량으로 시작해 매핑 확장도 함께 확인
+        try (TransitionJournal journal = new TransitionJournal(directory, 1024, 500_000)) {
+            for (int i = 0; i < 2_000_000; i++) {
+                journal.fire(fleet, random.nextInt(machines), random.nextInt(EVENT_COUNT));
+            }
+            log.info("저널 레코드 수 : {}", journal.count());
+        }
+
+        // 재시작 : 이어서 기록하면 기존 레코드 뒤에 덧붙음
+        long recorded;
+        try (TransitionJournal journal = new TransitionJournal(directory, 1024, 500_000)) {
+            recorded = journal.count();
+            assertThat(journal.fire(fleet, 0, POWER_BUTTON)).isTrue();
+            assertThat(journal.count()).isEqualTo(recorded + 1);
+        }
+
+        // 스냅샷 이전 레코드만 담은 세그먼트는 삭제되어 최근 스냅샷 하나와 그 이후 세그먼트만 남음
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().toList();
+            log.info("저널 파일 : {}", names);
+            assertThat(names).filteredOn(name -> name.startsWith("snapshot-")).hasSize(1);
+            assertThat(names).filteredOn(name -> name.startsWith("journal-")).hasSizeLessThanOrEqualTo(2);
+        }
+
+        MachineFleet sequential = TransitionJournal.recover(directory, laptop(), machines, OFF, null);
+        MachineFleet parallel;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            parallel = TransitionJournal.recover(directory, laptop(), machines, OFF, pool);
+        }
+        assertThat(sequential.states()).isEqualTo(fleet.states());
+        assertThat(parallel.states()).isEqualTo(fleet.states());
+
+        // 복원된 상태로 상태 객체 기반 LaptopContext 생성
+        LaptopContext laptop = TransitionJournal.toLaptopContext(parallel, 0);
+        assertThat(laptop.powerState).isEqualTo(switch (fleet.state(0)) {
+            case ON -> OnState.getInstance();
+            case SAVING -> SavingState.getInstance();
+            default -> OffState.getInstance();
+        });
+    }
+
+    private static boolean isSorted(List<Integer> values) {
+        for (int i = 1; i < values.size(); i++) {
+            if (values.get(i - 1) > values.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,463 @@
+package com.mark.designpattern.d_state;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+import static com.mark.designpattern.d_state.State.*;
+import static com.mark.designpattern.d_state.StateTable.*;
+
+/**
+ * 상태 전이 저널 (Append-Only Transition Log)<br>
+ * 재시작 후 상태 머신(MachineFleet)의 상태를 다시 만들기 위해 허용된 전이를 메모리 맵 세그먼트 파일(journal-[시작 레코드 번호].bin)에 6 byte 레코드로 덧붙인다.<br>
+ * 레코드 : [machine (int)][event (byte)][전이 후 상태 (byte)] - 전이 후 상태를 함께 기록하므로 복원할 때 전이 규칙을 다시 실행하지 않고 머신 별 마지막 레코드만 적용하면 된다.<br>
+ * snapshotEvery 개의 레코드마다 새 세그먼트로 넘어가고(rotate), 그 시점의 상태 배열 복사본을 백그라운드 스레드가 스냅샷 파일(snapshot-[레코드 번호].bin)로 저장한다. (기록 스레드는 배열 복사만 하고 파일 쓰기 / force 를 기다리지 않음)<br>
+ * 스냅샷이 디스크에 반영되면 그 이전 레코드만 담은 세그먼트는 더 필요 없으므로 삭제한다. (저널 크기는 스냅샷 주기의 약 두 배로 제한)<br>
+ * 이전 스냅샷을 아직 쓰는 중이면 이번 스냅샷은 건너뛰며, 해당 세그먼트는 다음 스냅샷이 끝날 때 함께 삭제된다.<br>
+ * 복원은 가장 최근 스냅샷 + 그 이후 레코드만 읽는다.<br>
+ * 기록은 단일 스레드(머신을 소유한 스레드)에서만 호출해야 하며, 기록은 페이지 캐시에 쓰는 것이므로 프로세스 장애에는 안전하지만 전원 장애까지 견디려면 force() 를 호출한다.
+ */
+class TransitionJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x4A524E4C;           // "JRNL"
+    private static final int SNAPSHOT_MAGIC = 0x534E4150;  // "SNAP"
+    private static final int HEADER_SIZE = 24;             // magic (int) + 예약 (int) + 시작 레코드 번호 (long) + 세그먼트 레코드 수 (long)
+    private static final int BASE_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int RECORD_SIZE = 6;
+    private static final int SNAPSHOT_HEADER_SIZE = 16;    // magic (int) + 머신 수 (int) + 레코드 번호 (long)
+
+    // 병렬 복원 시 구간 당 최소 레코드 수 / 병합 작업을 더 나누지 않는 최소 머신 수
+    private static final int REPLAY_THRESHOLD = 1 << 16;
+
+    private final Path directory;
+    private final int initialCapacity;
+    private final long snapshotEvery;
+    private final ExecutorService snapshotWriter;
+
+    // 현재 세그먼트
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long base;
+
+    // 전체 레코드 수 (모든 세그먼트 합계 = 다음 레코드 번호)
+    private long count;
+
+    private CompletableFuture<Void> pendingSnapshot = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param initialCapacity 세그먼트 초기 용량 (레코드 수, 부족하면 두 배씩 확장)
+     * @param snapshotEvery   스냅샷 주기 (레코드 수), 0 이면 자동 스냅샷을 만들지 않음 (세그먼트 하나에 계속 기록)
+     */
+    TransitionJournal(Path directory, int initialCapacity, long snapshotEvery) {
+        this.directory = directory;
+        this.initialCapacity = initialCapacity;
+        this.snapshotEvery = snapshotEvery;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            open(segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.snapshotWriter = Executors.newSingleThreadExecutor(task -> Thread.ofPlatform()
+                .name("journal-snapshot")
+                .daemon()
+                .unstarted(task));
+    }
+
+    /**
+     * 전이 실행 후 허용된 전이만 기록
+     */
+    boolean fire(MachineFleet fleet, int machine, int event) {
+        if (!fleet.fire(machine, event)) {
+            return false;
+        }
+
+        append(machine, event, fleet.state(machine));
+        if (snapshotEvery > 0 && count % snapshotEvery == 0) {
+            rotate();
+            if (pendingSnapshot.isDone()) {
+                // 이전 스냅샷이 실패했다면 기록 스레드에 전달 (이미 끝났으므로 대기하지 않음)
+                await(pendingSnapshot);
+                pendingSnapshot = snapshotAsync(fleet);
+            }
+        }
+        return true;
+    }
+
+    void append(int machine, int event, int state) {
+        long position = HEADER_SIZE + (count - base) * RECORD_SIZE;
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            grow();
+        }
+
+        int p = (int) position;
+        buffer.putInt(p, machine);
+        buffer.put(p + 4, (byte) event);
+        buffer.put(p + 5, (byte) state);
+
+        // 레코드를 쓴 뒤 레코드 수를 갱신 : 중간에 중단되면 마지막 레코드는 없는 것으로 취급
+        count++;
+        buffer.putLong(COUNT_OFFSET, count - base);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * 현재 상태 배열의 스냅샷을 저장하고 완료될 때까지 대기
+     */
+    void snapshot(MachineFleet fleet) {
+        await(snapshotAsync(fleet));
+    }
+
+    /**
+     * 현재 상태 배열을 복사해 백그라운드 스레드에서 스냅샷으로 저장 (기록 스레드에서 호출)
+     */
+    CompletableFuture<Void> snapshotAsync(MachineFleet fleet) {
+        byte[] states = fleet.states().clone();
+        long sequence = count;
+        return CompletableFuture.runAsync(() -> writeSnapshot(directory, states, sequence), snapshotWriter);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * 진행 중인 스냅샷을 기다린 뒤 닫음
+     */
+    @Override
+    public void close() {
+        try {
+            snapshotWriter.shutdown();
+            await(pendingSnapshot);
+        } finally {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void open(long sequence) throws IOException {
+        Path file = directory.resolve(segmentName(sequence));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean exists = channel.size() >= HEADER_SIZE;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(channel.size(), HEADER_SIZE + (long) initialCapacity * RECORD_SIZE));
+
+        if (exists) {
+            if (buffer.getInt(0) != MAGIC || buffer.getLong(BASE_OFFSET) != sequence) {
+                throw new IllegalStateException("not a transition journal segment : " + file);
+            }
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(BASE_OFFSET, sequence);
+            buffer.putLong(COUNT_OFFSET, 0);
+        }
+        base = sequence;
+        count = sequence + buffer.getLong(COUNT_OFFSET);
+    }
+
+    /**
+     * 현재 레코드 번호에서 시작하는 새 세그먼트로 전환 (이전 세그먼트는 닫기만 하고 삭제는 스냅샷 저장 후)
+     */
+    private void rotate() {
+        try {
+            channel.close();
+            open(count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void grow() {
+        try {
+            // 파일과 매핑을 두 배로 확장 (이전 매핑은 GC 시 해제)
+            long capacity = Math.min((long) buffer.capacity() * 2, Integer.MAX_VALUE);
+            if (capacity <= buffer.capacity()) {
+                throw new IllegalStateException("journal segment is full : " + (count - base) + " records");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 스냅샷 저장 : 임시 파일에 쓴 뒤 이름을 바꾸므로 저장 중 장애가 나도 이전 스냅샷은 그대로 남는다.<br>
+     * 저장 후에는 이전 스냅샷과 sequence 이전 레코드만 담은 세그먼트를 삭제한다. (Truncation)
+     */
+    private static void writeSnapshot(Path directory, byte[] states, long sequence) {
+        Path target = directory.resolve(snapshotName(sequence));
+        Path temp = directory.resolve(snapshotName(sequence) + ".tmp");
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE)
+                    .putInt(SNAPSHOT_MAGIC)
+                    .putInt(states.length)
+                    .putLong(sequence)
+                    .flip();
+            ByteBuffer body = ByteBuffer.wrap(states);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                out.write(new ByteBuffer[]{header, body});
+            }
+            out.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // 가장 최근 스냅샷만 유지
+            for (Path old : snapshots(directory)) {
+                if (!old.equals(target)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            // 세그먼트는 시작 번호 순이므로 다음 세그먼트가 sequence 이하에서 시작하면 이 세그먼트의 레코드는 모두 스냅샷에 포함됨
+            List<Path> segments = segments(directory);
+            for (int i = 0; i + 1 < segments.size() && sequenceOf(segments.get(i + 1)) <= sequence; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 복원 : 가장 최근 스냅샷(없으면 size 개의 initialState 머신)에 이후 레코드를 세그먼트 순서대로 적용
+     *
+     * @param pool null 이면 순차 복원
+     */
+    static MachineFleet recover(Path directory, TransitionTable table, int size, int initialState, ForkJoinPool pool) {
+        try {
+            List<Path> snapshots = snapshots(directory);
+            byte[] states;
+            long from;
+            if (snapshots.isEmpty()) {
+                states = new byte[size];
+                Arrays.fill(states, (byte) initialState);
+                from = 0;
+            } else {
+                ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshots.get(snapshots.size() - 1)));
+                if (snapshot.getInt() != SNAPSHOT_MAGIC) {
+                    throw new IllegalStateException("not a snapshot : " + snapshots.get(snapshots.size() - 1));
+                }
+                states = new byte[snapshot.getInt()];
+                from = snapshot.getLong();
+                snapshot.get(states);
+            }
+
+            // 스냅샷 이후 레코드를 담은 첫 세그먼트부터 적용
+            List<Path> segments = segments(directory);
+            int first = 0;
+            while (first + 1 < segments.size() && sequenceOf(segments.get(first + 1)) <= from) {
+                first++;
+            }
+            if (!segments.isEmpty() && sequenceOf(segments.get(first)) > from) {
+                throw new IllegalStateException("journal records missing after snapshot " + from + " : " + segments.get(first));
+            }
+
+            for (Path segment : segments.subList(Math.min(first, segments.size()), segments.size())) {
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    long segmentBase = buffer.getLong(BASE_OFFSET);
+                    long start = Math.max(from, segmentBase) - segmentBase;
+                    long end = buffer.getLong(COUNT_OFFSET);
+                    if (pool == null) {
+                        replay(buffer, states, start, end);
+                    } else {
+                        replay(buffer, states, start, end, pool);
+                    }
+                }
+            }
+            return new MachineFleet(table, states);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 복원된 머신 상태를 상태 객체 기반 LaptopContext 로 변환
+     */
+    static LaptopContext toLaptopContext(MachineFleet fleet, int machine) {
+        LaptopContext context = new LaptopContext();
+        context.changeState(switch (fleet.state(machine)) {
+            case ON -> OnState.getInstance();
+            case SAVING -> SavingState.getInstance();
+            default -> OffState.getInstance();
+        });
+        return context;
+    }
+
+    private static void replay(ByteBuffer buffer, byte[] states, long from, long to) {
+        for (long i = from; i < to; i++) {
+            int p = (int) (HEADER_SIZE + i * RECORD_SIZE);
+            states[buffer.getInt(p)] = buffer.get(p + 5);
+        }
+    }
+
+    /**
+     * 병렬 복원 : 레코드를 구간(segment)으로 나누어 구간마다 자신만의 상태 배열에 적용한 뒤, 머신 별로 가장 뒤 구간의 상태를 반영한다.<br>
+     * 구간마다 배열을 따로 두므로 복원 중에는 스레드 간 공유 쓰기(CAS, 캐시 라인 경합)가 없다. (추가 메모리 : 구간 수 x 머신 수 byte)
+     */
+    private static void replay(ByteBuffer buffer, byte[] states, long from, long to, ForkJoinPool pool) {
+        int segments = (int) Math.min(pool.getParallelism(), (to - from) / REPLAY_THRESHOLD);
+        if (segments <= 1) {
+            replay(buffer, states, from, to);
+            return;
+        }
+
+        // 0 : 해당 구간에 레코드 없음, 그 외 : 상태 + 1
+        byte[][] segmentStates = new byte[segments][states.length];
+        long length = (to - from + segments - 1) / segments;
+        pool.invoke(new ReplayAction(buffer, segmentStates, from, to, length, 0, segments));
+        pool.invoke(new MergeAction(segmentStates, states, 0, states.length));
+    }
+
+    private static String snapshotName(long sequence) {
+        return String.format("snapshot-%019d.bin", sequence);
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("journal-%019d.bin", sequence);
+    }
+
+    // 파일 이름의 레코드 번호 (snapshot-[번호].bin, journal-[번호].bin)
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.length() - ".bin".length()));
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        return list(directory, "snapshot-");
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        return list(directory, "journal-");
+    }
+
+    // 레코드 번호 오름차순 (이름이 0 으로 채워진 고정 길이라 문자열 순서 = 번호 순서)
+    private static List<Path> list(Path directory, String prefix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(".bin");
+                    })
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    /**
+     * 구간 [first, last) 을 반씩 나누어 병렬로 각 구간의 레코드를 구간 전용 상태 배열에 적용
+     */
+    private static final class ReplayAction extends RecursiveAction {
+        private final ByteBuffer buffer;
+        private final byte[][] segmentStates;
+        private final long from;
+        private final long to;
+        private final long length;
+        private final int first;
+        private final int last;
+
+        ReplayAction(ByteBuffer buffer, byte[][] segmentStates, long from, long to, long length, int first, int last) {
+            this.buffer = buffer;
+            this.segmentStates = segmentStates;
+            this.from = from;
+            this.to = to;
+            this.length = length;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                byte[] states = segmentStates[first];
+                long end = Math.min(to, from + (first + 1) * length);
+                for (long i = from + first * length; i < end; i++) {
+                    int p = (int) (HEADER_SIZE + i * RECORD_SIZE);
+                    states[buffer.getInt(p)] = (byte) (buffer.get(p + 5) + 1);
+                }
+                return;
+            }
+
+            int mid = (first + last) >>> 1;
+            invokeAll(new ReplayAction(buffer, segmentStates, from, to, length, first, mid),
+                    new ReplayAction(buffer, segmentStates, from, to, length, mid, last));
+        }
+    }
+
+    /**
+     * 머신 범위를 나누어 병렬로 머신 별 가장 뒤 구간의 상태를 반영 (어느 구간에도 레코드가 없는 머신은 스냅샷 상태 유지)
+     */
+    private static final class MergeAction extends RecursiveAction {
+        private final byte[][] segmentStates;
+        private final byte[] states;
+        private final int from;
+        private final int to;
+
+        MergeAction(byte[][] segmentStates, byte[] states, int from, int to) {
+            this.segmentStates = segmentStates;
+            this.states = states;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= REPLAY_THRESHOLD) {
+                for (int machine = from; machine < to; machine++) {
+                    for (int segment = segmentStates.length - 1; segment >= 0; segment--) {
+                        byte state = segmentStates[segment][machine];
+                        if (state != 0) {
+                            states[machine] = (byte) (state - 1);
+                            break;
+                        }
+                    }
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeAction(segmentStates, states, from, mid), new MergeAction(segmentStates, states, mid, to));
+        }
+    }
+}
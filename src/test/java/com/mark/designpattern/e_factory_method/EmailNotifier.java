@@ -0,0 +1,163 @@
+package com.mark.designpattern.e_factory_method;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 비동기 일괄 메일 발송기<br>
+ * ShipFactory.sendEmailTo 는 주문 스레드에서 메일 문자열을 만들고 발송(로그)까지 하므로 발송 시간만큼 주문이 늦어진다.<br>
+ * 주문 스레드는 제한된 크기의 큐에 알림만 넣고 바로 돌아가며, 발송 스레드 하나가 큐에서 최대 batchSize 개씩 꺼내 한 번에 발송한다.<br>
+ * 큐가 가득 차면 알림을 버리지 않고 주문 스레드에서 바로 발송한다. (Caller-Runs 방식의 Back-Pressure)<br>
+ * close() 이후에는 발송 스레드가 없으므로 send() 는 큐에 넣지 않고 주문 스레드에서 바로 발송한다.<br>
+ * synchronous() 는 큐 없이 주문 스레드에서 바로 발송하는 비교용 발송기이다.
+ */
+@Slf4j
+class EmailNotifier implements AutoCloseable {
+
+    /**
+     * 발송 전에 선박이 풀에 반납되어 재사용되어도 알림 내용이 바뀌지 않도록 선박 참조 대신 필드 값을 보관
+     */
+    record Notification(String email, String name, String color, String capacity) {
+
+        static Notification of(String email, Ship ship) {
+            return new Notification(email, ship.name, ship.color, ship.capacity);
+        }
+
+        // 선박 설명 (Ship.toString() 과 동일)
+        String ship() {
+            return Ship.describe(name, color, capacity);
+        }
+    }
+
+    private final BlockingQueue<Notification> queue;
+    private final int batchSize;
+    private final Consumer<List<Notification>> sender;
+    private final Thread worker;   // 동기 발송기는 null
+    private volatile boolean running = true;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    EmailNotifier(int capacity, int batchSize) {
+        this(capacity, batchSize, EmailNotifier::log);
+    }
+
+    /**
+     * @param sender 일괄 발송 (큐가 가득 차면 주문 스레드에서도 호출되므로 thread-safe 해야 함)
+     */
+    EmailNotifier(int capacity, int batchSize, Consumer<List<Notification>> sender) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.sender = sender;
+        this.worker = Thread.ofPlatform().name("email-notifier").daemon().start(this::drainLoop);
+    }
+
+    private EmailNotifier(Consumer<List<Notification>> sender) {
+        this.queue = null;
+        this.batchSize = 1;
+        this.sender = sender;
+        this.worker = null;
+    }
+
+    /**
+     * 주문 스레드에서 한 건씩 바로 발송
+     */
+    static EmailNotifier synchronous(Consumer<List<Notification>> sender) {
+        return new EmailNotifier(sender);
+    }
+
+    void send(String email, Ship ship) {
+        Notification notification = Notification.of(email, ship);
+        if (queue == null || !running) {
+            deliver(List.of(notification));
+        } else if (!queue.offer(notification)) {
+            callerRuns.increment();
+            deliver(List.of(notification));
+        } else if (!running && queue.remove(notification)) {
+            // close() 와 경합해 발송 스레드가 끝난 뒤 들어간 알림 (이미 꺼내졌으면 꺼낸 쪽이 발송)
+            deliver(List.of(notification));
+        }
+    }
+
+    long sent() {
+        return sent.sum();
+    }
+
+    long batches() {
+        return batches.sum();
+    }
+
+    long callerRuns() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * 남은 알림을 모두 발송한 뒤 종료
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 발송 스레드가 마지막으로 큐를 확인한 뒤 들어온 알림
+        List<Notification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            deliver(rest);
+        }
+    }
+
+    private void drainLoop() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("메일 발송 실패 : {} 건", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        sender.accept(batch);
+        sent.add(batch.size());
+        batches.increment();
+    }
+
+    private static void log(List<Notification> batch) {
+        if (log.isInfoEnabled()) {
+            for (Notification notification : batch) {
+                log.info("{} 다 만들었다고 {}로 메일을 보냈습니다.", notification.ship(), notification.email());
+            }
+        }
+    }
+}
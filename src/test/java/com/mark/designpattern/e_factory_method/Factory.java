@@ -1,11 +1,17 @@
 package com.mark.designpattern.e_factory_method;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * 공장 객체 추상화<br>
  * 추상 클래스 -> 인터페이스 (default Method 활용) 가능
  */
 abstract class AbstractFactory {
 
+    // Fork/Join 작업을 더 나누지 않고 한 스레드에서 생성하는 제품 수
+    static final int CHUNK_SIZE = 4096;
+
     /**
      * 객체 생성 전/후처리 메서드
      */
@@ -15,11 +21,75 @@ abstract class AbstractFactory {
         return product;                     // 제품 객체를 생성 및 추가 설정 후 완성된 제품 반환
     }
 
+    /**
+     * 대량 생성 : 배포 시 캐시 예열처럼 수백만 개의 제품을 한 번에 만들 때 호출 당 비용을 줄이기 위해 공용 ForkJoinPool 에서 chunk 단위로 병렬 생성
+     */
+    final IProduct[] someOperations(int n) {
+        return someOperations(n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool null 이면 호출 스레드에서 순차 생성
+     */
+    final IProduct[] someOperations(int n, ForkJoinPool pool) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative : " + n);
+        }
+
+        IProduct[] products = new IProduct[n];
+        if (pool == null || n <= CHUNK_SIZE) {
+            createProducts(products, 0, n);
+        } else {
+            pool.invoke(new ChunkAction(this, products, 0, n));
+        }
+        return products;
+    }
+
+    /**
+     * chunk 생성 : products[from, to) 를 채운다. (chunk 마다 한 스레드에서 호출되고 chunk 끼리는 배열 구간이 겹치지 않음)<br>
+     * 서브 클래스는 chunk 단위로 재사용할 준비 작업(버퍼, 공통 설정 값 등)이 있으면 재정의하여 chunk 당 한 번만 준비할 수 있다.
+     */
+    protected void createProducts(IProduct[] products, int from, int to) {
+        for (int i = from; i < to; i++) {
+            IProduct product = createProduct();
+            product.setting();
+            products[i] = product;
+        }
+    }
+
     /**
      * 팩토리 메서드 : 구체적인 객체 생성 종류는 각 서브 클래스에 위임
      * protected 이기 때문에 외부에 노출이 안 됨
      */
     abstract protected IProduct createProduct();
+
+    /**
+     * 배열 구간을 반씩 나누어 병렬 생성
+     */
+    private static final class ChunkAction extends RecursiveAction {
+        private final AbstractFactory factory;
+        private final IProduct[] products;
+        private final int from;
+        private final int to;
+
+        ChunkAction(AbstractFactory factory, IProduct[] products, int from, int to) {
+            this.factory = factory;
+            this.products = products;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                factory.createProducts(products, from, to);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction(factory, products, from, mid), new ChunkAction(factory, products, mid, to));
+        }
+    }
 }
 
 class ConcreteFactoryA extends AbstractFactory {
@@ -3,7 +3,16 @@ package com.mark.designpattern.e_factory_method;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * <b>팩토리 메서드 패턴 (Factory Method Pattern)</b><br>
@@ -60,4 +69,123 @@ public class FactoryMethodTest {
         log.info(oilTankerShip.toString());
         assertThat(oilTankerShip).isInstanceOf(OilTankerShip.class);
     }
+
+    /**
+     * 선박 재사용 + 비동기 일괄 메일 발송 : 주문 스레드는 알림만 큐에 넣고 바로 반환
+     */
+    @Test
+    public void cachedShipFactoryTest() {
+        ContainerShipFactory containerFactory = ContainerShipFactory.getInstance();
+        OilTankerShipFactory oilTankerFactory = OilTankerShipFactory.getInstance();
+        LongAdder delivered = new LongAdder();
+        Queue<String> mails = new ConcurrentLinkedQueue<>();
+
+        try (EmailNotifier notifier = new EmailNotifier(64, 16, batch -> {
+            batch.forEach(notification -> mails.add(notification.ship()));
+            delivered.add(batch.size());
+        })) {
+            // 프로토타입 : 모든 주문이 같은 인스턴스를 공유
+            containerFactory.useCache(ShipCache.prototype(containerFactory::createShip));
+            containerFactory.useNotifier(notifier);
+            Ship first = containerFactory.orderShip("yongseok993@gmail.com");
+            Ship second = containerFactory.orderShip("yongseok993@gmail.com");
+            assertThat(first).isInstanceOf(ContainerShip.class).isSameAs(second);
+
+            // 재사용 방식 없음 : 주문마다 새 선박
+            oilTankerFactory.useNotifier(notifier);
+            List<Ship> ships = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                ships.add(oilTankerFactory.orderShip("yongseok993@gmail.com"));
+            }
+            assertThat(ships).allMatch(OilTankerShip.class::isInstance).doesNotHaveDuplicates();
+
+            // 메일 발송은 주문 스레드를 막지 않고 close() 시 남은 알림까지 모두 발송
+            notifier.close();
+            assertThat(notifier.sent()).isEqualTo(18);
+            assertThat(delivered.sum()).isEqualTo(18);
+
+            // close() 이후 주문의 알림은 유실되지 않고 주문 스레드에서 바로 발송
+            oilTankerFactory.orderShip("yongseok993@gmail.com");
+            assertThat(notifier.sent()).isEqualTo(19);
+            assertThat(delivered.sum()).isEqualTo(19);
+
+            // 알림은 선박 참조 없이 필드 값만 보관하고 선박은 불변이므로, 발송 전에 공유 / 재사용되어도 메일 내용은 주문 시점과 같음
+            assertThat(EmailNotifier.Notification.class.getRecordComponents())
+                    .noneMatch(component -> Ship.class.isAssignableFrom(component.getType()));
+            assertThat(Ship.class.getDeclaredFields())
+                    .filteredOn(field -> !field.isSynthetic())
+                    .allMatch(field -> Modifier.isFinal(field.getModifiers()));
+            assertThat(mails).hasSize(19).containsOnly(first.toString(), ships.get(0).toString());
+            log.info("메일 {} 건을 {} 번에 나누어 발송", notifier.sent(), notifier.batches());
+        } finally {
+            containerFactory.useCache(null);
+            containerFactory.useNotifier(null);
+            oilTankerFactory.useNotifier(null);
+        }
+    }
+
+    /**
+     * 대량 생성 : chunk 단위로 병렬 생성 및 setting() 실행
+     */
+    @Test
+    public void bulkFactoryTest() {
+        LongAdder settings = new LongAdder();
+        LongAdder chunks = new LongAdder();
+        AbstractFactory factory = new AbstractFactory() {
+            @Override
+            protected IProduct createProduct() {
+                return settings::increment;
+            }
+
+            @Override
+            protected void createProducts(IProduct[] products, int from, int to) {
+                chunks.increment();
+                super.createProducts(products, from, to);
+            }
+        };
+
+        int n = 1_000_000;
+        IProduct[] products = factory.someOperations(n);
+        assertThat(products).hasSize(n).doesNotContainNull();
+        assertThat(settings.sum()).isEqualTo(n);
+        assertThat(chunks.sum()).isGreaterThanOrEqualTo(n / AbstractFactory.CHUNK_SIZE);
+
+        // pool 이 null 이면 한 chunk 로 순차 생성
+        chunks.reset();
+        assertThat(factory.someOperations(10_000, null)).hasSize(10_000).doesNotContainNull();
+        assertThat(chunks.sum()).isEqualTo(1);
+        assertThat(factory.someOperations(0)).isEmpty();
+    }
+
+    /**
+     * 팩토리 레지스트리 : 제품 별 팩토리 서브 클래스 없이 어노테이션 / ServiceLoader 로 찾은 제품을 이름으로 생성
+     */
+    @Test
+    public void factoryRegistryTest() {
+        FactoryRegistry registry = new FactoryRegistry()
+                .scan(FactoryRegistry.class.getPackageName())
+                .loadServices();
+        log.info(registry.report().format());
+
+        assertThat(registry.names()).containsExactlyInAnyOrder("A", "B", "ConcreteProductC");
+        assertThat(registry.create("A")).isInstanceOf(ConcreteProductA.class);
+        assertThat(registry.create("B")).isInstanceOf(ConcreteProductB.class);
+        assertThat(registry.create("ConcreteProductC")).isInstanceOf(ConcreteProductC.class);
+
+        // 매번 새 인스턴스, Supplier 는 리플렉션이 아닌 LambdaMetafactory 가 만든 숨은 클래스
+        Supplier<? extends IProduct> supplier = registry.supplier("A");
+        assertThat(supplier.get()).isNotSameAs(supplier.get());
+        assertThat(supplier.getClass().isHidden()).isTrue();
+
+        // 이미 등록된 이름에 다른 클래스를 등록하면 실패
+        assertThatThrownBy(() -> registry.register(A.class)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> registry.create("D")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // 어노테이션이 없으므로 클래스 이름(A)이 제품 이름
+    static class A implements IProduct {
+        @Override
+        public void setting() {
+        }
+    }
 }
@@ -0,0 +1,220 @@
+package com.mark.designpattern.e_factory_method;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.stream.Stream;
+
+/**
+ * 제품 이름 지정 : FactoryRegistry.scan() 으로 찾을 제품 구현체에 선언
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@interface ProductType {
+    String value();
+}
+
+/**
+ * 리플렉션 기반 팩토리 레지스트리<br>
+ * 제품을 추가할 때마다 AbstractFactory 서브 클래스(ConcreteFactoryA, B ...)를 만드는 대신, 제품 구현체를 찾아 이름 별 Supplier 로 등록한다.<br>
+ * 찾는 방법 : 패키지의 @ProductType 선언 클래스 검색(scan) 또는 META-INF/services 에 등록된 IProduct 구현체(loadServices, public 기본 생성자 필요)<br>
+ * 생성자는 시작 시 한 번 LambdaMetafactory 로 Supplier 구현 클래스에 연결하므로, 호출 시점에는 리플렉션 없이 new 를 직접 호출하는 것과 같은 비용이다.<br>
+ * 등록(scan, loadServices, register)은 시작 시 한 스레드에서 하고, 이후 조회(create, supplier)는 여러 스레드에서 해도 된다.
+ */
+class FactoryRegistry {
+
+    enum Source { ANNOTATION, SERVICE_LOADER, MANUAL }
+
+    record Timing(String product, Source source, long nanos) {}
+
+    record StartupReport(long discoveryNanos, List<Timing> timings) {
+
+        long totalNanos() {
+            return discoveryNanos + timings.stream().mapToLong(Timing::nanos).sum();
+        }
+
+        String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Factory registry startup report (products: %d)%n", timings.size()));
+            sb.append(String.format("  %-28s %10.3f ms%n", "discovery", discoveryNanos / 1_000_000.0));
+            for (Timing timing : timings) {
+                sb.append(String.format("  %-28s %10.3f ms%n", timing.product() + " (" + timing.source() + ")", timing.nanos() / 1_000_000.0));
+            }
+            sb.append(String.format("  %-28s %10.3f ms", "total", totalNanos() / 1_000_000.0));
+            return sb.toString();
+        }
+    }
+
+    private final Map<String, Supplier<? extends IProduct>> suppliers = new HashMap<>();
+    private final Map<String, Class<?>> types = new HashMap<>();
+    private final List<Timing> timings = new ArrayList<>();
+    private long discoveryNanos;
+
+    /**
+     * 패키지(디렉토리 또는 jar)에서 @ProductType 이 선언된 IProduct 구현체를 찾아 등록
+     */
+    FactoryRegistry scan(String packageName) {
+        long start = System.nanoTime();
+        List<Class<? extends IProduct>> found = new ArrayList<>();
+        for (String className : classNames(packageName)) {
+            Class<?> type = load(className);
+            if (IProduct.class.isAssignableFrom(type) && type.isAnnotationPresent(ProductType.class) && isConcrete(type)) {
+                found.add(type.asSubclass(IProduct.class));
+            }
+        }
+        discoveryNanos += System.nanoTime() - start;
+
+        found.forEach(type -> register(type, Source.ANNOTATION));
+        return this;
+    }
+
+    /**
+     * META-INF/services/com.mark.designpattern.e_factory_method.IProduct 에 등록된 구현체 등록 (ServiceLoader 로 인스턴스는 만들지 않음)
+     */
+    FactoryRegistry loadServices() {
+        long start = System.nanoTime();
+        List<Class<? extends IProduct>> found = ServiceLoader.load(IProduct.class).stream()
+                .<Class<? extends IProduct>>map(ServiceLoader.Provider::type)
+                .toList();
+        discoveryNanos += System.nanoTime() - start;
+
+        found.forEach(type -> register(type, Source.SERVICE_LOADER));
+        return this;
+    }
+
+    FactoryRegistry register(Class<? extends IProduct> type) {
+        register(type, Source.MANUAL);
+        return this;
+    }
+
+    /**
+     * AbstractFactory.someOperation() 과 같이 생성 후 setting() 까지 실행
+     */
+    IProduct create(String name) {
+        IProduct product = supplier(name).get();
+        product.setting();
+        return product;
+    }
+
+    Supplier<? extends IProduct> supplier(String name) {
+        Supplier<? extends IProduct> supplier = suppliers.get(name);
+        if (supplier == null) {
+            throw new IllegalArgumentException("unknown product : " + name);
+        }
+        return supplier;
+    }
+
+    Set<String> names() {
+        return Collections.unmodifiableSet(suppliers.keySet());
+    }
+
+    StartupReport report() {
+        return new StartupReport(discoveryNanos, List.copyOf(timings));
+    }
+
+    /**
+     * 기본 생성자를 Supplier 로 연결 : LambdaMetafactory 가 생성자를 직접 호출하는 Supplier 구현 클래스를 만든다.<br>
+     * 이 클래스의 Lookup 을 사용하므로 같은 패키지의 package-private 생성자 또는 public 생성자만 연결할 수 있다.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> bind(Class<T> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot bind the no-arg constructor of " + type.getName(), e);
+        }
+    }
+
+    private void register(Class<? extends IProduct> type, Source source) {
+        ProductType annotation = type.getAnnotation(ProductType.class);
+        String name = annotation != null ? annotation.value() : type.getSimpleName();
+
+        Class<?> existing = types.get(name);
+        if (existing == type) {
+            return;
+        }
+        if (existing != null) {
+            throw new IllegalStateException("duplicate product name '" + name + "' : " + existing.getName() + ", " + type.getName());
+        }
+
+        long start = System.nanoTime();
+        suppliers.put(name, bind(type));
+        types.put(name, type);
+        timings.add(new Timing(name, source, System.nanoTime() - start));
+    }
+
+    private static boolean isConcrete(Class<?> type) {
+        return !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            // 클래스 초기화(static 블록)는 실제로 사용할 때까지 미룸
+            return Class.forName(className, false, FactoryRegistry.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 패키지 바로 아래의 클래스 이름 목록 (하위 패키지 제외)
+    private static List<String> classNames(String packageName) {
+        String path = packageName.replace('.', '/');
+        List<String> names = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = FactoryRegistry.class.getClassLoader().getResources(path);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    try (Stream<Path> files = Files.list(Path.of(root.toURI()))) {
+                        files.map(file -> file.getFileName().toString())
+                                .filter(file -> file.endsWith(".class"))
+                                .forEach(file -> names.add(packageName + "." + file.substring(0, file.length() - ".class".length())));
+                    }
+                } else if ("jar".equals(root.getProtocol())) {
+                    JarURLConnection connection = (JarURLConnection) root.openConnection();
+                    connection.getJarFile().stream()
+                            .map(JarEntry::getName)
+                            .filter(entry -> entry.startsWith(path + "/") && entry.endsWith(".class") && entry.indexOf('/', path.length() + 1) < 0)
+                            .forEach(entry -> names.add(entry.substring(0, entry.length() - ".class".length()).replace('/', '.')));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        return names;
+    }
+}
@@ -13,6 +13,7 @@ interface IProduct {
  * 제품 구현체
  */
 @Slf4j
+@ProductType("A")
 class ConcreteProductA implements IProduct {
     @Override
     public void setting() {
@@ -24,9 +25,25 @@ class ConcreteProductA implements IProduct {
  * 제품 구현체
  */
 @Slf4j
+@ProductType("B")
 class ConcreteProductB implements IProduct {
     @Override
     public void setting() {
         log.info("ConcreteProductB setting completed");
     }
 }
+
+/**
+ * 제품 구현체 : 전용 팩토리 서브 클래스 없이 META-INF/services 등록만으로 FactoryRegistry 에서 생성
+ * (ServiceLoader 는 public 기본 생성자를 요구)
+ */
+@Slf4j
+class ConcreteProductC implements IProduct {
+    public ConcreteProductC() {
+    }
+
+    @Override
+    public void setting() {
+        log.info("ConcreteProductC setting completed");
+    }
+}
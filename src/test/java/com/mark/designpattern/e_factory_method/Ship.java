@@ -5,13 +5,20 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 생성 후 바뀌지 않는 불변 객체 : ShipCache.prototype 으로 모든 주문이 공유해도 다른 주문에 영향이 없다.
+ */
 @AllArgsConstructor
 public class Ship {
-    String name, color, capacity;
+    final String name, color, capacity;
+
+    static String describe(String name, String color, String capacity) {
+        return String.format("Ship { name: '%s', color: '%s', logo: '%s' }\n", name, color, capacity);
+    }
 
     @Override
     public String toString() {
-        return String.format("Ship { name: '%s', color: '%s', logo: '%s' }\n", name, color, capacity);
+        return describe(name, color, capacity);
     }
 }
 
@@ -30,16 +37,37 @@ class OilTankerShip extends Ship {
 @Slf4j
 abstract class ShipFactory {
 
+    // null 이면 주문마다 createShip() 으로 새로 생성
+    private volatile ShipCache cache;
+
+    // null 이면 주문 스레드에서 바로 메일 발송 (로그)
+    private volatile EmailNotifier notifier;
+
     /**
      * 객체 생성 전/후처리 메서드
      */
     final Ship orderShip(String email) {
         validate(email);
-        Ship ship = createShip();
+        ShipCache c = cache;
+        Ship ship = c == null ? createShip() : c.acquire();
         sendEmailTo(email, ship);
         return ship;
     }
 
+    /**
+     * 선박 재사용 방식 지정 (null 이면 매번 새로 생성)
+     */
+    final void useCache(ShipCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * 메일 발송을 비동기 일괄 발송기로 위임 (null 이면 동기 발송)
+     */
+    final void useNotifier(EmailNotifier notifier) {
+        this.notifier = notifier;
+    }
+
     private void validate(String email) {
         if (email == null) {
             throw new IllegalArgumentException("Please enter your email.");
@@ -47,7 +75,12 @@ abstract class ShipFactory {
     }
 
     private void sendEmailTo(String email, Ship ship) {
-        log.info("{} 다 만들었다고 {}로 메일을 보냈습니다.", ship, email);
+        EmailNotifier n = notifier;
+        if (n != null) {
+            n.send(email, ship);
+        } else {
+            log.info("{} 다 만들었다고 {}로 메일을 보냈습니다.", ship, email);
+        }
     }
 
     abstract Ship createShip();
@@ -0,0 +1,23 @@
+package com.mark.designpattern.e_factory_method;
+
+import java.util.function.Supplier;
+
+/**
+ * 선박 재사용 방식<br>
+ * ShipFactory.orderShip 은 주문마다 선박 객체를 새로 만든다. 주문이 많으면 할당/GC 비용이 주문 처리량을 좌우하므로 팩토리에 재사용 방식을 지정할 수 있게 한다.<br>
+ * prototype : 선박(Ship)은 불변이므로 인스턴스 하나를 모든 주문이 공유한다.<br>
+ * 불변 객체는 공유만으로 할당이 사라지므로 반납(release)을 받아 재사용하는 풀(pool)은 두지 않는다. (풀은 락 기반 큐와 반납 규약 비용만 추가됨)<br>
+ * 메일 알림(EmailNotifier.Notification)은 선박 참조 대신 필드 값을 복사해 둔다.
+ */
+interface ShipCache {
+
+    Ship acquire();
+
+    /**
+     * 공유 인스턴스 : 불변 선박 하나를 모든 주문에 반환
+     */
+    static ShipCache prototype(Supplier<? extends Ship> factory) {
+        Ship prototype = factory.get();
+        return () -> prototype;
+    }
+}
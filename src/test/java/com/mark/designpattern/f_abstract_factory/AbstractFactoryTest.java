@@ -1,9 +1,27 @@
 package com.mark.designpattern.f_abstract_factory;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * <b>추상 팩토리 패턴 (Abstract Factory Pattern)</b><br>
@@ -119,4 +137,221 @@ public class AbstractFactoryTest {
             c.render();
         }
     }
+
+    /**
+     * Platform 타입 조회 : 대소문자 무시 문자열 조회(Perfect Hash) + enum 인덱스 생성자 배열
+     */
+    @Test
+    public void platformComponentTest() {
+        assertThat(Platform.of("Window")).isEqualTo(Platform.WINDOW);
+        assertThat(Platform.of("MAC")).isEqualTo(Platform.MAC);
+        assertThatThrownBy(() -> Platform.of("linux")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Platform.of("wind")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Platform.of("")).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(ButtonFactory.getInstance().createOperation(Platform.WINDOW)).isInstanceOf(WindowButton.class);
+        assertThat(ButtonFactory.getInstance().createOperation(Platform.MAC)).isInstanceOf(MacButton.class);
+        assertThat(CheckBoxFactory.getInstance().createOperation(Platform.WINDOW)).isInstanceOf(WindowCheckBox.class);
+        assertThat(CheckBoxFactory.getInstance().createComponent("Mac")).isInstanceOf(MacCheckBox.class);
+
+        // 알 수 없는 타입은 null 대신 예외
+        assertThatThrownBy(() -> ButtonFactory.getInstance().createOperation("linux")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 캐싱 추상 팩토리 : 상태가 없는 컴포넌트는 공유 인스턴스, 상태가 있는 컴포넌트는 매번 생성
+     */
+    @Test
+    public void cachingComponentFactoryTest() {
+        CachingComponentFactory window = CachingComponentFactory.getInstance(Platform.WINDOW);
+        assertThat(window).isSameAs(CachingComponentFactory.getInstance(Platform.WINDOW));
+        assertThat(window.createButton()).isInstanceOf(WindowButton.class).isSameAs(window.createButton());
+        assertThat(CachingComponentFactory.getInstance(Platform.MAC).createCheckBox()).isInstanceOf(MacCheckBox.class);
+
+        // 상태가 있는 버튼(인스턴스 필드) / @Stateful 체크박스는 공유하지 않음
+        CachingComponentFactory factory = new CachingComponentFactory(new ComponentAbstractFactory() {
+            @Override
+            public Button createButton() {
+                return new CounterButton();
+            }
+
+            @Override
+            public CheckBox createCheckBox() {
+                return new StatefulCheckBox();
+            }
+        });
+        assertThat(factory.createButton()).isNotSameAs(factory.createButton());
+        assertThat(factory.createCheckBox()).isNotSameAs(factory.createCheckBox());
+        assertThat(factory.hits()).isZero();
+        assertThat(factory.misses()).isEqualTo(6);
+
+        CachingComponentFactory stateless = new CachingComponentFactory(MacFactory.getInstance());
+        for (int i = 0; i < 1_000; i++) {
+            stateless.createButton();
+            stateless.createCheckBox();
+        }
+        assertThat(stateless.hits()).isEqualTo(2_000);
+        assertThat(stateless.misses()).isEqualTo(2);
+    }
+
+    /**
+     * 일괄 렌더링 : 여러 요청의 컴포넌트를 모아 타입 별로 묶어 병렬 렌더링하고 fps / p99 지표 집계
+     */
+    @Test
+    public void renderPipelineTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RenderPipeline pipeline;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            pipeline = new RenderPipeline(pool, 64).bindTo(registry);
+            ComponentAbstractFactoryMethod[] factories = {new WindowFactoryMethod(), new MacFactoryMethod()};
+
+            for (int frame = 0; frame < 20; frame++) {
+                for (int request = 0; request < 100; request++) {
+                    pipeline.submit(factories[request % 2]);
+                }
+                assertThat(pipeline.renderFrame()).isEqualTo(200);
+            }
+            // 모인 요청이 없으면 프레임으로 세지 않음
+            assertThat(pipeline.renderFrame()).isZero();
+        }
+        log.info(pipeline.dump());
+
+        assertThat(pipeline.frames()).isEqualTo(20);
+        assertThat(pipeline.components()).isEqualTo(4_000);
+        assertThat(pipeline.fps()).isPositive();
+        assertThat(pipeline.percentileNanos(99)).isGreaterThanOrEqualTo(pipeline.percentileNanos(50));
+        assertThat(pipeline.typeTimings())
+                .extracting(RenderPipeline.TypeTiming::type, RenderPipeline.TypeTiming::count)
+                .containsExactlyInAnyOrder(
+                        tuple("WindowButton", 1_000L), tuple("WindowCheckBox", 1_000L),
+                        tuple("MacButton", 1_000L), tuple("MacCheckBox", 1_000L));
+
+        assertThat(registry.get("render.frame").timer().count()).isEqualTo(20);
+        assertThat(registry.get("render.fps").gauge().value()).isPositive();
+    }
+
+    /**
+     * 플랫폼 제품군 레지스트리 : ServiceLoader 로 등록된 제품군 조회 + 실행 중 새 제품군 등록 (조회는 멈추지 않음)
+     */
+    @Test
+    public void platformRegistryTest(@TempDir Path directory) throws Exception {
+        PlatformRegistry registry = PlatformRegistry.getInstance();
+        assertThat(registry.names()).contains("window", "mac");
+        assertThat(registry.get("window").createButton()).isInstanceOf(WindowButton.class);
+        assertThat(registry.get("mac").createCheckBox()).isInstanceOf(MacCheckBox.class);
+        assertThatThrownBy(() -> registry.get("linux")).isInstanceOf(IllegalArgumentException.class);
+
+        // Hot-Load : 실행 중 추가된 경로의 META-INF/services 에 등록된 제품군만 새로 등록
+        PlatformRegistry hotLoad = PlatformRegistry.empty();
+        assertThat(hotLoad.load(getClass().getClassLoader())).isEqualTo(2);
+
+        // 플러그인 제품군은 테스트 클래스패스에 없는 클래스 : 실행 중에 컴파일해 자식 클래스 로더로만 읽음 (다른 런타임 패키지에서 SPI 구현)
+        Path services = Files.createDirectories(directory.resolve("META-INF/services"));
+        Files.writeString(services.resolve(ComponentFamily.class.getName()), LINUX_PLUGIN);
+        Path source = directory.resolve("LinuxFamily.java");
+        Files.writeString(source, LINUX_PLUGIN_SOURCE);
+        String spiClassPath = Path.of(ComponentFamily.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        int compiled = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-cp", spiClassPath, "-d", directory.toString(), source.toString());
+        assertThat(compiled).isZero();
+        assertThatThrownBy(() -> Class.forName(LINUX_PLUGIN, false, getClass().getClassLoader())).isInstanceOf(ClassNotFoundException.class);
+
+        try (URLClassLoader plugin = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader())) {
+            assertThat(hotLoad.load(plugin)).isEqualTo(1);
+            assertThat(hotLoad.names()).containsExactlyInAnyOrder("window", "mac", "linux");
+
+            Button linuxButton = hotLoad.get("linux").createButton();
+            assertThat(linuxButton.getClass().getName()).isEqualTo(LINUX_PLUGIN + "$LinuxButton");
+            assertThat(linuxButton.getClass().getClassLoader()).isSameAs(plugin);
+            assertThat(hotLoad.get("linux").createCheckBox()).isInstanceOf(CheckBox.class);
+        }
+
+        // 조회 스레드가 도는 동안 등록 / 해제 반복 : 기존 제품군 조회는 항상 성공
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder lookups = new LongAdder();
+        try (ExecutorService readers = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(readers.submit(() -> {
+                    while (running.get()) {
+                        assertThat(hotLoad.get("window")).isSameAs(WindowFactory.getInstance());
+                        lookups.increment();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < 1_000; i++) {
+                hotLoad.register("platform-" + i, MacFactory.getInstance());
+            }
+            for (int i = 0; i < 1_000; i++) {
+                assertThat(hotLoad.unregister("platform-" + i)).isTrue();
+            }
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertThat(lookups.sum()).isPositive();
+        assertThat(hotLoad.names()).hasSize(3);
+        assertThatThrownBy(() -> hotLoad.register("mac", MacFactory.getInstance())).isInstanceOf(IllegalStateException.class);
+    }
+
+    // 실행 중 추가되는 플랫폼 : 다른 패키지의 플러그인이 public SPI 만 사용해 제품군 구현
+    private static final String LINUX_PLUGIN = "plugin.linux.LinuxFamily";
+
+    private static final String LINUX_PLUGIN_SOURCE = """
+            package plugin.linux;
+
+            import com.mark.designpattern.f_abstract_factory.*;
+
+            public class LinuxFamily implements ComponentFamily {
+                public static class LinuxButton extends Button {
+                    @Override
+                    public void render() {
+                    }
+                }
+
+                public static class LinuxCheckBox extends CheckBox {
+                    @Override
+                    public void render() {
+                    }
+                }
+
+                @Override
+                public String name() {
+                    return "linux";
+                }
+
+                @Override
+                public ComponentAbstractFactory factory() {
+                    return new ComponentAbstractFactory() {
+                        @Override
+                        public Button createButton() {
+                            return new LinuxButton();
+                        }
+
+                        @Override
+                        public CheckBox createCheckBox() {
+                            return new LinuxCheckBox();
+                        }
+                    };
+                }
+            }
+            """;
+
+    static class CounterButton extends Button {
+        private int clicks;
+
+        @Override
+        public void render() {
+            clicks++;
+        }
+    }
+
+    @Stateful
+    static class StatefulCheckBox extends CheckBox {
+        @Override
+        public void render() {
+        }
+    }
 }
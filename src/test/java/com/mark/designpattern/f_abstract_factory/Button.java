@@ -0,0 +1,4 @@
+package com.mark.designpattern.f_abstract_factory;
+
+// 플러그인 제품군이 상속할 수 있도록 public
+public abstract class Button implements Component {}
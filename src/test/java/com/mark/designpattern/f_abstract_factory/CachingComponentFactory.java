@@ -0,0 +1,113 @@
+package com.mark.designpattern.f_abstract_factory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 공유하지 않을 컴포넌트 표시 : 인스턴스 필드가 없더라도 외부 상태에 의존하는 등 공유하면 안 되는 컴포넌트에 선언 (Opt-Out)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@interface Stateful {
+}
+
+/**
+ * 컴포넌트 캐싱 추상 팩토리<br>
+ * WindowFactory / MacFactory 는 상태가 없는 컴포넌트(WindowButton, MacCheckBox ...)도 호출마다 새로 만든다. 같은 위젯을 대량으로 만드는 렌더링 서비스에서는 할당/GC 비용이 커진다.<br>
+ * 감싼 팩토리가 만든 첫 인스턴스가 공유 가능하면(인스턴스 필드가 없고 @Stateful 이 아님) 이후 호출에는 그 인스턴스를 그대로 반환하고, 공유할 수 없으면 매번 감싼 팩토리로 새로 만든다.<br>
+ * 팩토리마다 공유 인스턴스를 반환한 횟수(hit)와 새로 만든 횟수(miss)를 센다.
+ */
+final class CachingComponentFactory implements ComponentAbstractFactory {
+
+    private final ComponentAbstractFactory delegate;
+
+    // null 이면 공유하지 않음 (매번 delegate 로 생성)
+    private final Button button;
+    private final CheckBox checkBox;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CachingComponentFactory(ComponentAbstractFactory delegate) {
+        this.delegate = delegate;
+
+        Button b = delegate.createButton();
+        CheckBox c = delegate.createCheckBox();
+        misses.add(2);
+        this.button = isShareable(b) ? b : null;
+        this.checkBox = isShareable(c) ? c : null;
+    }
+
+    private static class HOLDER {
+        private static final CachingComponentFactory[] INSTANCES = new CachingComponentFactory[Platform.values().length];
+
+        static {
+            for (Platform platform : Platform.values()) {
+                INSTANCES[platform.ordinal()] = new CachingComponentFactory(switch (platform) {
+                    case WINDOW -> WindowFactory.getInstance();
+                    case MAC -> MacFactory.getInstance();
+                });
+            }
+        }
+    }
+
+    /**
+     * 플랫폼 별 캐싱 팩토리 (플랫폼마다 하나)
+     */
+    static CachingComponentFactory getInstance(Platform platform) {
+        return HOLDER.INSTANCES[platform.ordinal()];
+    }
+
+    @Override
+    public Button createButton() {
+        Button b = button;
+        if (b != null) {
+            hits.increment();
+            return b;
+        }
+        misses.increment();
+        return delegate.createButton();
+    }
+
+    @Override
+    public CheckBox createCheckBox() {
+        CheckBox c = checkBox;
+        if (c != null) {
+            hits.increment();
+            return c;
+        }
+        misses.increment();
+        return delegate.createCheckBox();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * 공유 가능 : @Stateful 이 아니고 클래스 계층 전체에 인스턴스 필드가 없음 (상태가 없으므로 여러 스레드가 공유해도 안전)
+     */
+    static boolean isShareable(Component component) {
+        Class<?> type = component.getClass();
+        if (type.isAnnotationPresent(Stateful.class)) {
+            return false;
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -7,14 +7,13 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public interface Component {
     void render();
 }
 
-abstract class Button implements Component {}
-abstract class CheckBox implements Component {}
-
 @Slf4j
 class WindowButton extends Button {
     @Override
@@ -51,15 +50,34 @@ class MacCheckBox extends CheckBox {
 
 /**
  * <b>1. Factory Method Pattern</b><br>
- * 기능 확장이 필요한 경우 각 메서드마다 있는 분기문 로직을 일일이 수정이 필요하다 (OCP 원칙 위배)
+ * 기능 확장이 필요한 경우 각 메서드마다 있는 분기문 로직을 일일이 수정이 필요하다 (OCP 원칙 위배)<br>
+ * 문자열 타입은 Platform.of() 로 변환한 뒤 플랫폼 순서(ordinal)를 인덱스로 하는 생성자 배열에서 꺼내 생성한다. (toLowerCase() 할당 / 문자열 switch 없음, 알 수 없는 타입은 null 대신 예외)
  */
 interface ComponentFactoryMethod {
 
     // Template
     Component createOperation(String type);
 
+    Component createOperation(Platform platform);
+
     // Factory Method
     Component createComponent(String type);
+
+    Component createComponent(Platform platform);
+
+    /**
+     * 플랫폼 순서(ordinal)를 인덱스로 하는 생성자 배열 : 클래스 초기화 시 한 번만 만든다.<br>
+     * mapping 에 enum switch 를 사용하면 플랫폼이 추가될 때 누락된 분기를 컴파일러가 알려준다.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Component> Supplier<T>[] constructors(Function<Platform, Supplier<T>> mapping) {
+        Platform[] platforms = Platform.values();
+        Supplier<T>[] constructors = new Supplier[platforms.length];
+        for (Platform platform : platforms) {
+            constructors[platform.ordinal()] = mapping.apply(platform);
+        }
+        return constructors;
+    }
 }
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -72,20 +90,31 @@ class ButtonFactory implements ComponentFactoryMethod {
         return HOLDER.INSTANCE;
     }
 
+    private static final Supplier<Button>[] COMPONENTS = ComponentFactoryMethod.constructors(platform -> switch (platform) {
+        case WINDOW -> WindowButton::new;
+        case MAC -> MacButton::new;
+    });
+
     @Override
     public Button createOperation(String type) {
-        Button button = createComponent(type);
+        return createOperation(Platform.of(type));
+    }
+
+    @Override
+    public Button createOperation(Platform platform) {
+        Button button = createComponent(platform);
 //        button.추가설정();
         return button;
     }
 
     @Override
     public Button createComponent(String type) {
-        return switch (type.toLowerCase()) {
-            case "window" -> new WindowButton();
-            case "mac" -> new MacButton();
-            default -> null;
-        };
+        return createComponent(Platform.of(type));
+    }
+
+    @Override
+    public Button createComponent(Platform platform) {
+        return COMPONENTS[platform.ordinal()].get();
     }
 }
 
@@ -99,35 +128,37 @@ class CheckBoxFactory implements ComponentFactoryMethod {
         return HOLDER.INSTANCE;
     }
 
+    private static final Supplier<CheckBox>[] COMPONENTS = ComponentFactoryMethod.constructors(platform -> switch (platform) {
+        case WINDOW -> WindowCheckBox::new;
+        case MAC -> MacCheckBox::new;
+    });
+
     @Override
     public CheckBox createOperation(String type) {
-        CheckBox checkBox = createComponent(type);
+        return createOperation(Platform.of(type));
+    }
+
+    @Override
+    public CheckBox createOperation(Platform platform) {
+        CheckBox checkBox = createComponent(platform);
 //        button.추가설정();
         return checkBox;
     }
 
     @Override
     public CheckBox createComponent(String type) {
-        return switch (type.toLowerCase()) {
-            case "window" -> new WindowCheckBox();
-            case "mac" -> new MacCheckBox();
-            default -> null;
-        };
+        return createComponent(Platform.of(type));
+    }
+
+    @Override
+    public CheckBox createComponent(Platform platform) {
+        return COMPONENTS[platform.ordinal()].get();
     }
 }
 
 // =============================================================================== //
 
-/**
- * <b>2. Abstract Factory Pattern</b><br>
- * Linux OS 환경이 추가된다 하더라도 리눅스 컴포넌트 구현체와 리눅스 팩토리 클래스만 추가하면 확장이 완료된다.(OCP 원칙 준수)<br>
- * 그러나 새로운 OS가 아닌 새로운 컴포넌트인 툴팁이 추가된다고 생각하면 모든 서브 팩토리 클래스마다 툴팁 객체를 생성하는 createToolTip() 메서드를 추가해야 하는 문제점이 발생한다.<br>
- */
-
-interface ComponentAbstractFactory {
-    Button createButton();
-    CheckBox createCheckBox();
-}
+// 2. Abstract Factory Pattern : ComponentAbstractFactory
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 class WindowFactory implements ComponentAbstractFactory {
@@ -0,0 +1,12 @@
+package com.mark.designpattern.f_abstract_factory;
+
+/**
+ * <b>2. Abstract Factory Pattern</b><br>
+ * Linux OS 환경이 추가된다 하더라도 리눅스 컴포넌트 구현체와 리눅스 팩토리 클래스만 추가하면 확장이 완료된다.(OCP 원칙 준수)<br>
+ * 그러나 새로운 OS가 아닌 새로운 컴포넌트인 툴팁이 추가된다고 생각하면 모든 서브 팩토리 클래스마다 툴팁 객체를 생성하는 createToolTip() 메서드를 추가해야 하는 문제점이 발생한다.<br>
+ * 플러그인(ComponentFamily)이 다른 클래스 로더에서 구현할 수 있도록 public 이다.
+ */
+public interface ComponentAbstractFactory {
+    Button createButton();
+    CheckBox createCheckBox();
+}
@@ -0,0 +1,14 @@
+package com.mark.designpattern.f_abstract_factory;
+
+/**
+ * 플랫폼 제품군 제공자 (SPI)<br>
+ * META-INF/services/com.mark.designpattern.f_abstract_factory.ComponentFamily 에 구현 클래스를 등록하면 PlatformRegistry 가 찾아 등록한다. (ServiceLoader 가 인스턴스를 만들 수 있도록 public 클래스 + public 기본 생성자 필요)<br>
+ * 실행 중 추가한 jar 의 클래스는 다른 클래스 로더가 정의하므로 런타임 패키지가 달라진다. 그 클래스가 구현/상속할 수 있도록 SPI 와 제품 타입(ComponentAbstractFactory, Component, Button, CheckBox)은 public 이다.
+ */
+public interface ComponentFamily {
+
+    // 플랫폼 이름 (소문자)
+    String name();
+
+    ComponentAbstractFactory factory();
+}
@@ -0,0 +1,83 @@
+package com.mark.designpattern.f_abstract_factory;
+
+/**
+ * 컴포넌트 플랫폼(OS)<br>
+ * 문자열 타입은 of(name) 으로 변환한다. 대소문자를 구분하지 않으며 toLowerCase() 처럼 새 문자열을 만들지 않는다. (id 는 ASCII 소문자만 허용)<br>
+ * 이름의 (길이, 첫 글자, 마지막 글자) 로 만든 해시가 플랫폼마다 다른 칸이 되는 가장 작은 테이블을 클래스 초기화 시 한 번 찾아 두므로(Perfect Hash) 조회는 해시 계산 + 한 번의 비교이다.
+ */
+enum Platform {
+    WINDOW("window"),
+    MAC("mac");
+
+    private static final int MAX_TABLE_SIZE = 1 << 16;
+    private static final Platform[] TABLE = perfectHashTable();
+    private static final int MASK = TABLE.length - 1;
+
+    private final String id;
+
+    Platform(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    /**
+     * @throws IllegalArgumentException 알 수 없는 플랫폼
+     */
+    static Platform of(String name) {
+        if (name != null && !name.isEmpty()) {
+            Platform platform = TABLE[hash(name) & MASK];
+            if (platform != null && platform.matches(name)) {
+                return platform;
+            }
+        }
+        throw new IllegalArgumentException("unknown platform : " + name);
+    }
+
+    // id 는 ASCII 소문자이므로 (c | 0x20) 으로 대문자만 소문자로 맞춰 비교 (영문자가 아닌 문자는 0x20 을 더해도 영문 소문자가 되지 않음)
+    private boolean matches(String name) {
+        if (id.length() != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if ((name.charAt(i) | 0x20) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String name) {
+        int h = name.length();
+        h = h * 31 + (name.charAt(0) | 0x20);
+        h = h * 31 + (name.charAt(name.length() - 1) | 0x20);
+        return h ^ (h >>> 7);
+    }
+
+    private static Platform[] perfectHashTable() {
+        for (Platform platform : values()) {
+            if (!platform.id.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+                throw new IllegalStateException("platform id must be lower-case ASCII letters : " + platform.id);
+            }
+        }
+
+        for (int size = 1; size <= MAX_TABLE_SIZE; size <<= 1) {
+            Platform[] table = new Platform[size];
+            boolean collision = false;
+            for (Platform platform : values()) {
+                int slot = hash(platform.id) & (size - 1);
+                if (table[slot] != null) {
+                    collision = true;
+                    break;
+                }
+                table[slot] = platform;
+            }
+            if (!collision) {
+                return table;
+            }
+        }
+        throw new IllegalStateException("no perfect hash table up to " + MAX_TABLE_SIZE + " slots");
+    }
+}
@@ -0,0 +1,137 @@
+package com.mark.designpattern.f_abstract_factory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * 플랫폼 제품군 레지스트리<br>
+ * 새 플랫폼(예: Linux)을 추가할 때 ButtonFactory, CheckBoxFactory 등의 분기문을 고치는 대신, ComponentFamily 구현체를 ServiceLoader 로 찾아 이름 별 추상 팩토리로 등록한다.<br>
+ * 조회는 불변 Map 스냅샷을 volatile 로 한 번 읽는 상수 시간 연산이며 락을 잡지 않는다.<br>
+ * 등록/해제는 스냅샷을 복사해 바꾼 뒤 새 스냅샷으로 교체하므로(Copy-On-Write) 실행 중에 제품군을 추가해도 조회는 멈추지 않는다. (쓰기끼리만 synchronized 로 직렬화)
+ */
+final class PlatformRegistry {
+
+    // 기본 제품군 : ServiceLoader 가 생성할 수 있도록 public (META-INF/services 에 PlatformRegistry$WindowFamily 형태로 등록)
+    public static class WindowFamily implements ComponentFamily {
+        @Override
+        public String name() {
+            return "window";
+        }
+
+        @Override
+        public ComponentAbstractFactory factory() {
+            return WindowFactory.getInstance();
+        }
+    }
+
+    public static class MacFamily implements ComponentFamily {
+        @Override
+        public String name() {
+            return "mac";
+        }
+
+        @Override
+        public ComponentAbstractFactory factory() {
+            return MacFactory.getInstance();
+        }
+    }
+
+    private volatile Map<String, ComponentAbstractFactory> snapshot = Map.of();
+
+    private PlatformRegistry() {
+    }
+
+    private static class HOLDER {
+        private static final PlatformRegistry INSTANCE = create();
+
+        private static PlatformRegistry create() {
+            PlatformRegistry registry = new PlatformRegistry();
+            registry.load(PlatformRegistry.class.getClassLoader());
+            return registry;
+        }
+    }
+
+    /**
+     * 클래스패스의 ComponentFamily 를 모두 등록한 레지스트리
+     */
+    static PlatformRegistry getInstance() {
+        return HOLDER.INSTANCE;
+    }
+
+    /**
+     * 비어 있는 레지스트리 (테스트, 벤치마크용)
+     */
+    static PlatformRegistry empty() {
+        return new PlatformRegistry();
+    }
+
+    /**
+     * @throws IllegalArgumentException 등록되지 않은 플랫폼
+     */
+    ComponentAbstractFactory get(String name) {
+        ComponentAbstractFactory factory = snapshot.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("unknown platform : " + name);
+        }
+        return factory;
+    }
+
+    boolean contains(String name) {
+        return snapshot.containsKey(name);
+    }
+
+    Set<String> names() {
+        return snapshot.keySet();
+    }
+
+    /**
+     * @throws IllegalStateException 이미 등록된 플랫폼
+     */
+    synchronized void register(String name, ComponentAbstractFactory factory) {
+        Map<String, ComponentAbstractFactory> current = snapshot;
+        if (current.containsKey(name)) {
+            throw new IllegalStateException("platform already registered : " + name);
+        }
+
+        Map<String, ComponentAbstractFactory> next = new HashMap<>(current);
+        next.put(name, factory);
+        snapshot = Map.copyOf(next);
+    }
+
+    /**
+     * @return 등록되어 있지 않았으면 false
+     */
+    synchronized boolean unregister(String name) {
+        Map<String, ComponentAbstractFactory> current = snapshot;
+        if (!current.containsKey(name)) {
+            return false;
+        }
+
+        Map<String, ComponentAbstractFactory> next = new HashMap<>(current);
+        next.remove(name);
+        snapshot = Map.copyOf(next);
+        return true;
+    }
+
+    /**
+     * 클래스 로더(예: 실행 중 추가한 jar 의 URLClassLoader)에서 ComponentFamily 를 찾아 아직 등록되지 않은 제품군만 한 번에 등록 (Hot-Load)
+     *
+     * @return 새로 등록한 제품군 수
+     */
+    synchronized int load(ClassLoader classLoader) {
+        Map<String, ComponentAbstractFactory> next = new HashMap<>(snapshot);
+        int added = 0;
+        for (ComponentFamily family : ServiceLoader.load(ComponentFamily.class, classLoader)) {
+            if (next.putIfAbsent(family.name(), family.factory()) == null) {
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            snapshot = Map.copyOf(next);
+        }
+        return added;
+    }
+}
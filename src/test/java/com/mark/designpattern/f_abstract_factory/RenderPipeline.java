@@ -0,0 +1,179 @@
+package com.mark.designpattern.f_abstract_factory;
+
+import com.mark.designpattern.common.Log2Histogram;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 일괄 렌더링 파이프라인<br>
+ * Component.render() 를 요청마다 하나씩 호출하는 대신, 여러 요청의 컴포넌트(ComponentAbstractFactoryMethod.createOperation())를 모아 한 프레임으로 렌더링한다.<br>
+ * 프레임 안에서 컴포넌트를 구체 타입(WindowButton, MacCheckBox ...) 별로 묶어 같은 render() 코드가 연속으로 실행되도록 하고(캐시 지역성), 타입 별 묶음을 batchSize 단위로 나누어 ForkJoinPool 에서 병렬 렌더링한다.<br>
+ * 프레임 렌더링 시간 히스토그램(p50, p99), 초당 프레임 수(fps), 타입 별 렌더링 시간을 집계하고 Micrometer MeterRegistry 로 내보낼 수 있다.<br>
+ * submit() 은 여러 스레드에서 호출해도 되며, renderFrame() 은 렌더링 루프 스레드 하나에서 호출한다.
+ */
+class RenderPipeline {
+
+    record TypeTiming(String type, long count, long totalNanos) {}
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final Queue<List<? extends Component>> pending = new ConcurrentLinkedQueue<>();
+
+    private final Log2Histogram frameStats = new Log2Histogram();
+    private final Map<Class<?>, TypeStats> typeStats = new ConcurrentHashMap<>();
+    private final LongAdder components = new LongAdder();
+    private long firstFrameAt;
+    private volatile long lastFrameAt;
+
+    // bindTo() 전에는 null : Micrometer 로 내보내지 않음
+    private volatile Timer frameTimer;
+
+    /**
+     * @param pool null 이면 렌더링 루프 스레드에서 순차 렌더링
+     */
+    RenderPipeline(ForkJoinPool pool, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive : " + batchSize);
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    void submit(ComponentAbstractFactoryMethod factory) {
+        submit(factory.createOperation());
+    }
+
+    void submit(List<? extends Component> request) {
+        pending.offer(request);
+    }
+
+    /**
+     * 지금까지 모인 요청을 한 프레임으로 렌더링
+     *
+     * @return 렌더링한 컴포넌트 수 (모인 요청이 없으면 0, 프레임으로 세지 않음)
+     */
+    int renderFrame() {
+        // 구체 타입 별로 묶기
+        Map<Class<?>, List<Component>> groups = new HashMap<>();
+        int count = 0;
+        List<? extends Component> request;
+        while ((request = pending.poll()) != null) {
+            for (Component component : request) {
+                groups.computeIfAbsent(component.getClass(), type -> new ArrayList<>()).add(component);
+            }
+            count += request.size();
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        if (pool == null) {
+            groups.forEach(this::renderBatch);
+        } else {
+            List<ForkJoinTask<?>> batches = new ArrayList<>();
+            groups.forEach((type, group) -> {
+                for (int from = 0; from < group.size(); from += batchSize) {
+                    List<Component> batch = group.subList(from, Math.min(from + batchSize, group.size()));
+                    batches.add(ForkJoinTask.adapt(() -> renderBatch(type, batch)));
+                }
+            });
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(batches)));
+        }
+        long end = System.nanoTime();
+
+        frameStats.record(end - start);
+        components.add(count);
+        if (firstFrameAt == 0) {
+            firstFrameAt = start;
+        }
+        lastFrameAt = end;
+
+        Timer t = frameTimer;
+        if (t != null) {
+            t.record(end - start, TimeUnit.NANOSECONDS);
+        }
+        return count;
+    }
+
+    long frames() {
+        return frameStats.count();
+    }
+
+    long components() {
+        return components.sum();
+    }
+
+    /**
+     * 초당 프레임 수 : 첫 프레임 시작부터 마지막 프레임 종료까지 렌더링한 프레임 수 (프레임이 없으면 0)
+     */
+    double fps() {
+        long frames = frames();
+        long elapsed = lastFrameAt - firstFrameAt;
+        return frames == 0 || elapsed <= 0 ? 0 : frames * 1_000_000_000.0 / elapsed;
+    }
+
+    /**
+     * 프레임 렌더링 시간 백분위 (2의 거듭제곱 버킷의 상한, ns)
+     */
+    long percentileNanos(double percentile) {
+        return frameStats.percentile(percentile);
+    }
+
+    List<TypeTiming> typeTimings() {
+        return typeStats.entrySet().stream()
+                .map(e -> new TypeTiming(e.getKey().getSimpleName(), e.getValue().count.sum(), e.getValue().nanos.sum()))
+                .toList();
+    }
+
+    /**
+     * Micrometer 레지스트리에 render.frame (Timer, 백분위 포함) / render.fps (Gauge) / render.components (Gauge) 등록
+     */
+    RenderPipeline bindTo(MeterRegistry registry) {
+        frameTimer = Timer.builder("render.frame")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("render.fps", this, RenderPipeline::fps).register(registry);
+        Gauge.builder("render.components", this, RenderPipeline::components).register(registry);
+        return this;
+    }
+
+    String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Render pipeline : frames: %d, components: %d, fps: %.1f, p50: %dns, p99: %dns, max: %dns%n",
+                frames(), components(), fps(), percentileNanos(50), percentileNanos(99), frameStats.maxNanos()));
+        for (TypeTiming timing : typeTimings()) {
+            sb.append(String.format("  %-16s count: %d, avg: %dns%n",
+                    timing.type(), timing.count(), timing.count() == 0 ? 0 : timing.totalNanos() / timing.count()));
+        }
+        return sb.toString();
+    }
+
+    private void renderBatch(Class<?> type, List<Component> batch) {
+        long start = System.nanoTime();
+        for (Component component : batch) {
+            component.render();
+        }
+        TypeStats stats = typeStats.computeIfAbsent(type, t -> new TypeStats());
+        stats.count.add(batch.size());
+        stats.nanos.add(System.nanoTime() - start);
+    }
+
+    private static final class TypeStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+}